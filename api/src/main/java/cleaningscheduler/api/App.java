@@ -4,9 +4,11 @@ import cleaningscheduler.api.controllers.ScheduleController;
 import cleaningscheduler.api.utility.CustomObjectMapperProvider;
 import cleaningscheduler.domain.IScheduleFactory;
 import cleaningscheduler.domain.SchedulerFactory;
+import cleaningscheduler.domain.scheduler.GreedyScheduler;
 import cleaningscheduler.domain.scheduler.IScheduler;
 import cleaningscheduler.domain.scheduler.MaxCostsPerPersonScheduler;
 import cleaningscheduler.domain.scheduler.MaxTaskPersonVariableScheduler;
+import cleaningscheduler.persistence.CachingRepository;
 import cleaningscheduler.persistence.ISchedulerRepository;
 import cleaningscheduler.persistence.VanillaSQL.SQLRepository;
 import org.eclipse.jetty.server.Server;
@@ -60,10 +62,11 @@ public class App {
         // Create the dependencies we want to inject
         IScheduleFactory factory = new SchedulerFactory();
 //        ISchedulerRepository repository = new InMemoryRepository();
-        ISchedulerRepository repository = new SQLRepository();
+        ISchedulerRepository repository = new CachingRepository(new SQLRepository());
 //        IScorer scorer = new MaxCostsPerPersonScorer();
 //        IScheduler scheduler = new MaxTaskPersonVariableScheduler();
-        IScheduler scheduler = new MaxCostsPerPersonScheduler();
+//        IScheduler scheduler = new GreedyScheduler();
+        IScheduler scheduler = new MaxCostsPerPersonScheduler(Runtime.getRuntime().availableProcessors());
         // Create the Controller and inject the dependencies
         ScheduleController scheduleController = new ScheduleController(factory, repository, scheduler);
         // Register our Controller
@@ -5,6 +5,7 @@ import cleaningscheduler.api.models.ScheduleDTO;
 import cleaningscheduler.api.models.TaskDTO;
 import cleaningscheduler.domain.*;
 import cleaningscheduler.domain.scheduler.IScheduler;
+import cleaningscheduler.domain.scheduler.TimedSchedule;
 import cleaningscheduler.exporter.Exporter;
 import cleaningscheduler.persistence.ISchedulerRepository;
 import cleaningscheduler.persistence.exceptions.DeleteNotAllowedException;
@@ -112,11 +113,11 @@ public class ScheduleController {
         java.util.List<ISchedule> scheduleList = repository.getAllSchedules();
         java.util.List<IPerson> personList = repository.getAllPeople();
 
-        java.util.List<ScheduleDTO> output = scheduleList.stream()
-                .map(schedule -> {
-                    int score = scheduler.calculateScore(schedule, personList);
-                    return new ScheduleDTO(schedule, score);
-                })
+        // The persons are compiled once and shared by all stored schedules
+        java.util.List<Integer> scoreList = scheduler.calculateScores(scheduleList, personList);
+
+        java.util.List<ScheduleDTO> output = java.util.stream.IntStream.range(0, scheduleList.size())
+                .mapToObj(index -> new ScheduleDTO(scheduleList.get(index), scoreList.get(index)))
                 .toList();
 
         return Response.status(200).entity(output).build();
@@ -128,21 +129,55 @@ public class ScheduleController {
     public Response getNewSchedule(@QueryParam("startWeek") int startWeek,
                                    @DefaultValue("1") @QueryParam("scheduleLength") int scheduleLength,
                                    @DefaultValue("false") @QueryParam("isIntervalVariable") boolean isIntervalVariable,
-                                   @DefaultValue("false") @QueryParam("isBalanced") boolean isBalanced
+                                   @DefaultValue("false") @QueryParam("isBalanced") boolean isBalanced,
+                                   @DefaultValue("0") @QueryParam("maxMillis") long maxMillis
     ) {
         java.util.List<IPerson> personList = repository.getAllPeople();
         java.util.List<ITask> taskList = repository.getAllTasks();
 
-        ISchedule schedule =
-                !isBalanced ? scheduler.schedule(personList, taskList, startWeek, scheduleLength, isIntervalVariable)
-                        : scheduler.scheduleBalanced(personList, taskList, startWeek, scheduleLength, isIntervalVariable);
+        // A maxMillis of 0 searches without a deadline
+        TimedSchedule timedSchedule = scheduler.scheduleWithinTime(personList, taskList, startWeek, scheduleLength,
+                isIntervalVariable, isBalanced, maxMillis);
+        ISchedule schedule = timedSchedule.schedule();
         int score =
                 !isBalanced ? scheduler.calculateScore(schedule, personList)
                         : scheduler.calculateScoreBalanced(schedule, personList);
 
         repository.save(schedule);
 
-        ScheduleDTO output = new ScheduleDTO(schedule, score);
+        ScheduleDTO output = new ScheduleDTO(schedule, score, timedSchedule.isProvenOptimal());
+
+        return Response.status(200).entity(output).build();
+    }
+
+    @Path("/reschedule")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response reschedule(@QueryParam("createdAt") String createdAtString,
+                               @DefaultValue("false") @QueryParam("isIntervalVariable") boolean isIntervalVariable,
+                               @DefaultValue("false") @QueryParam("isBalanced") boolean isBalanced,
+                               @DefaultValue("0") @QueryParam("maxMillis") long maxMillis
+    ) {
+        DateTime createdAt = DateTime.parse(createdAtString);
+        ISchedule baseSchedule = repository.getSchedule(createdAt);
+        if (baseSchedule == null || baseSchedule.weekListAsJava().isEmpty()) {
+            return Response.status(404).build();
+        }
+
+        java.util.List<IPerson> personList = repository.getAllPeople();
+        java.util.List<ITask> taskList = repository.getAllTasks();
+
+        // Only the weeks, tasks and persons touched by edits since baseSchedule are searched again
+        TimedSchedule timedSchedule = scheduler.reschedule(baseSchedule, personList, taskList,
+                isIntervalVariable, isBalanced, maxMillis);
+        ISchedule schedule = timedSchedule.schedule();
+        int score =
+                !isBalanced ? scheduler.calculateScore(schedule, personList)
+                        : scheduler.calculateScoreBalanced(schedule, personList);
+
+        repository.save(schedule);
+
+        ScheduleDTO output = new ScheduleDTO(schedule, score, timedSchedule.isProvenOptimal());
 
         return Response.status(200).entity(output).build();
     }
@@ -7,15 +7,21 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 
-public record ScheduleDTO(DateTime createdAt, List<WeekDTO> weekList, int score) {
+// isProvenOptimal is only known for a schedule that was just searched, otherwise it is null
+public record ScheduleDTO(DateTime createdAt, List<WeekDTO> weekList, int score, Boolean isProvenOptimal) {
     public ScheduleDTO(ISchedule schedule, int score){
+        this(schedule, score, null);
+    }
+
+    public ScheduleDTO(ISchedule schedule, int score, Boolean isProvenOptimal){
         this(
                 schedule.createdAt(),
                 schedule.weekListAsJava()
                         .stream()
                         .map(WeekDTO::new)
                         .collect(Collectors.toList()),
-                score
+                score,
+                isProvenOptimal
         );
     }
 }
@@ -0,0 +1,133 @@
+package cleaningscheduler.benchmark;
+
+import cleaningscheduler.domain.IPerson;
+import cleaningscheduler.domain.ISchedule;
+import cleaningscheduler.domain.Person;
+import cleaningscheduler.domain.SchedulerFactory;
+import cleaningscheduler.domain.Task;
+import cleaningscheduler.domain.scheduler.MaxCostsPerPersonScheduler;
+import cleaningscheduler.domain.search.BatchScorer;
+import cleaningscheduler.domain.search.CompiledOption;
+import cleaningscheduler.domain.search.CompiledProblem;
+import cleaningscheduler.domain.search.ScalarLaneKernel$;
+import cleaningscheduler.vectorscoring.VectorLaneKernel;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+import scala.collection.immutable.Map;
+import scala.collection.immutable.Map$;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Scores one block of leaves like BranchAndBoundSearcher hands them over: leaves that
+// only differ in the weeks and persons of the last task. The lanes of BatchScorer are
+// scored with the scalar and with the Vector API kernel, and the same leaves as
+// schedules with calculateScores of the schedulers, the scoring the api uses.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchScoringBenchmark {
+    private static final int firstWeek = 30;
+
+    @Param({"4", "8"})
+    public int personCount;
+
+    @Param({"4", "8"})
+    public int weekCount;
+
+    @Param({"6", "12"})
+    public int taskCount;
+
+    private int[][][] leaves;
+    private BatchScorer scalarScorer;
+    private BatchScorer vectorScorer;
+    private MaxCostsPerPersonScheduler scheduler;
+    private List<ISchedule> schedules;
+    private List<IPerson> persons;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        SchedulerFactory factory = new SchedulerFactory();
+
+        int[] weekNumbers = new int[weekCount];
+        Person[] personArray = new Person[personCount];
+        int[][] availability = new int[personCount][weekCount];
+        for (int person = 0; person < personCount; person++) {
+            Map<Object, Object> availabilityAssignment = Map$.MODULE$.empty();
+            for (int week = 0; week < weekCount; week++) {
+                weekNumbers[week] = firstWeek + week;
+                availability[person][week] = random.nextInt(60);
+                availabilityAssignment = availabilityAssignment.updated(weekNumbers[week], availability[person][week]);
+            }
+            personArray[person] = factory.createPerson("Person" + person, availabilityAssignment);
+        }
+        Task[] tasks = new Task[taskCount];
+        int[] costs = new int[taskCount];
+        for (int task = 0; task < taskCount; task++) {
+            costs[task] = 10 + random.nextInt(30);
+            tasks[task] = factory.createTask("task" + task, costs[task], personArray[task % personCount], false,
+                    firstWeek - 1, true, 1, 2);
+        }
+        int[] scoreWeights = new int[personCount];
+        Arrays.fill(scoreWeights, 1);
+        int[][] unassigned = new int[weekCount][taskCount];
+        for (int[] week : unassigned) {
+            Arrays.fill(week, CompiledProblem.Unassigned());
+        }
+        CompiledProblem problem = new CompiledProblem(DateTime.now(), weekNumbers, tasks, costs, personArray,
+                availability, scoreWeights, personCount, unassigned, unassigned, new CompiledOption[0][]);
+
+        int[][] base = new int[weekCount][taskCount];
+        for (int[] week : base) {
+            for (int task = 0; task < taskCount; task++) {
+                week[task] = random.nextInt(4) == 0 ? CompiledProblem.Unassigned() : random.nextInt(personCount);
+            }
+        }
+        leaves = new int[BatchScorer.defaultLaneCount()][][];
+        for (int leaf = 0; leaf < leaves.length; leaf++) {
+            leaves[leaf] = Arrays.stream(base).map(int[]::clone).toArray(int[][]::new);
+            for (int[] week : leaves[leaf]) {
+                week[taskCount - 1] = random.nextBoolean() ? CompiledProblem.Unassigned() : random.nextInt(personCount);
+            }
+        }
+
+        scalarScorer = new BatchScorer(problem, leaves.length, ScalarLaneKernel$.MODULE$);
+        vectorScorer = new BatchScorer(problem, leaves.length, new VectorLaneKernel());
+        scheduler = new MaxCostsPerPersonScheduler();
+        schedules = new ArrayList<>();
+        for (int[][] leaf : leaves) {
+            schedules.add(problem.toSchedule(leaf));
+        }
+        persons = List.of(personArray);
+    }
+
+    private int[] scoreLeaves(BatchScorer scorer) {
+        scorer.clear();
+        for (int[][] leaf : leaves) {
+            scorer.add(leaf);
+        }
+        return scorer.scoreAll();
+    }
+
+    @Benchmark
+    public int[] scalarLanes() {
+        return scoreLeaves(scalarScorer);
+    }
+
+    @Benchmark
+    public int[] vectorLanes() {
+        return scoreLeaves(vectorScorer);
+    }
+
+    @Benchmark
+    public List<Integer> schedulesOneByOne() {
+        return scheduler.calculateScores(schedules, persons);
+    }
+}
@@ -23,6 +23,7 @@ export type Schedule = {
     createdAt: Date;
     weekList: Week[];
     score: number;
+    isProvenOptimal?: boolean | null;
 }
 
 export function isSchedule(schedule: unknown): schedule is Schedule {
@@ -0,0 +1,119 @@
+package cleaningscheduler.domain
+
+import scala.collection.mutable
+
+case class ScoreDelta(score: Int, scoreBalanced: Int, scoreMaxTasks: Int)
+
+// Keeps the committed costs per person and week of a schedule. Moving a task only
+// rescores the person/week cells it leaves and enters, so the score change of a
+// reassignment takes time proportional to the weeks it touches. The workloads are
+// kept as a running sum and sum of squares for the balanced variance.
+class IncrementalScore(schedule: Schedule, personList: List[Person], maxTasksPerWeek: Int = 4):
+  private val weekNumbers: Array[Int] = schedule.weekList.map(_.weekNumber).toArray
+  private val weekIndices: Map[Int, Int] = weekNumbers.zipWithIndex.toMap
+  private val personIndices: Map[Person, List[Int]] = personList.zipWithIndex.groupMap(_._1)(_._2)
+  private val availability: Array[Array[Int]] = personList.map { person =>
+    weekNumbers.map(weekNumber => person.availabilityAssignment.getOrElse(weekNumber, 0))
+  }.toArray
+  private val load: Array[Array[Int]] = Array.ofDim[Int](personList.length, weekNumbers.length)
+  private val workLoad: Array[Long] = new Array[Long](personList.length)
+  private val taskCount: Array[Int] = new Array[Int](weekNumbers.length)
+  private val assignment: mutable.Map[Task, List[(Int, Person)]] = mutable.Map()
+  private var workLoadSum: Long = 0
+  private var workLoadSumOfSquares: Long = 0
+  private var currentScore: Int =
+    availability.map(row => row.map(cellAvailability => Week.personScore(cellAvailability, 0)).sum).sum
+  private var currentScoreMaxTasks: Int = weekNumbers.length * Week.maxTasksScore(0, maxTasksPerWeek)
+
+  schedule.weekList
+    .flatMap(week => week.taskAssignment.toList.map((task, person) => (task, (week.weekNumber, person))))
+    .groupMap(_._1)(_._2)
+    .foreach((task, weekOption) => reassignTask(task, weekOption))
+
+  def score: Int = currentScore
+
+  def scoreBalanced: Int =
+    currentScore - Schedule.standardDeviation(personList.length, workLoadSum, workLoadSumOfSquares)
+
+  def scoreMaxTasks: Int = currentScoreMaxTasks
+
+  def assignmentOf(task: Task): List[(Int, Person)] = assignment.getOrElse(task, List())
+
+  def reassignTaskDelta(task: Task, weekOption: List[(Int, Person)]): ScoreDelta =
+    val (costChanges, countChanges) = changes(task, weekOption)
+    delta(costChanges, countChanges)
+
+  def reassignTask(task: Task, weekOption: List[(Int, Person)]): ScoreDelta =
+    val (costChanges, countChanges) = changes(task, weekOption)
+    val scoreDelta = delta(costChanges, countChanges)
+
+    costChanges.foreach { case ((personIndex, week), change) =>
+      load(personIndex)(week) += change
+    }
+    costChanges.groupMapReduce(_._1._1)(_._2)(_ + _).foreach { (personIndex, change) =>
+      val newWorkLoad = workLoad(personIndex) + change
+      workLoadSum += change
+      workLoadSumOfSquares += newWorkLoad * newWorkLoad - workLoad(personIndex) * workLoad(personIndex)
+      workLoad(personIndex) = newWorkLoad
+    }
+    countChanges.foreach((week, change) => taskCount(week) += change)
+    currentScore += scoreDelta.score
+    currentScoreMaxTasks += scoreDelta.scoreMaxTasks
+
+    if weekOption.isEmpty then assignment.remove(task)
+    else assignment.update(task, weekOption.toMap.toList.sortBy(_._1))
+    scoreDelta
+
+  def changeWeekDelta(weekNumber: Int, task: Task, person: Person): ScoreDelta =
+    reassignTaskDelta(task, changedWeek(weekNumber, task, person))
+
+  def changeWeek(weekNumber: Int, task: Task, person: Person): ScoreDelta =
+    reassignTask(task, changedWeek(weekNumber, task, person))
+
+  private def changedWeek(weekNumber: Int, task: Task, person: Person): List[(Int, Person)] =
+    assignmentOf(task).filter(_._1 != weekNumber) :+ ((weekNumber, person))
+
+  private def indexOfWeek(weekNumber: Int): Int =
+    weekIndices.getOrElse(weekNumber,
+      throw new IllegalArgumentException("Can't find week " + weekNumber + " in the schedule"))
+
+  private def cellsOf(weekNumber: Int, person: Person): List[(Int, Int)] =
+    val week = indexOfWeek(weekNumber)
+    personIndices.getOrElse(person, List()).map(personIndex => (personIndex, week))
+
+  // Like Schedule.reassignTask, a later entry for the same week replaces an earlier one
+  private def changes(task: Task, weekOption: List[(Int, Person)]): (Map[(Int, Int), Int], Map[Int, Int]) =
+    val oldCells = assignmentOf(task)
+    val newCells = weekOption.toMap.toList
+    val costChanges = (
+      oldCells.flatMap((weekNumber, person) => cellsOf(weekNumber, person).map(cell => (cell, -task.costs)))
+        ++ newCells.flatMap((weekNumber, person) => cellsOf(weekNumber, person).map(cell => (cell, task.costs)))
+      ).groupMapReduce(_._1)(_._2)(_ + _)
+    val countChanges = (
+      oldCells.map((weekNumber, _) => (indexOfWeek(weekNumber), -1))
+        ++ newCells.map((weekNumber, _) => (indexOfWeek(weekNumber), 1))
+      ).groupMapReduce(_._1)(_._2)(_ + _)
+    (costChanges, countChanges)
+
+  private def delta(costChanges: Map[(Int, Int), Int], countChanges: Map[Int, Int]): ScoreDelta =
+    val scoreChange = costChanges.map { case ((personIndex, week), change) =>
+      val cellAvailability = availability(personIndex)(week)
+      val cellLoad = load(personIndex)(week)
+      Week.personScore(cellAvailability, cellLoad + change) - Week.personScore(cellAvailability, cellLoad)
+    }.sum
+
+    val workLoadChanges = costChanges.groupMapReduce(_._1._1)(_._2)(_ + _)
+    val newSum = workLoadSum + workLoadChanges.values.sum
+    val newSumOfSquares = workLoadSumOfSquares + workLoadChanges.map { (personIndex, change) =>
+      val newWorkLoad = workLoad(personIndex) + change
+      newWorkLoad * newWorkLoad - workLoad(personIndex) * workLoad(personIndex)
+    }.sum
+    val standardDeviationChange = Schedule.standardDeviation(personList.length, newSum, newSumOfSquares) -
+      Schedule.standardDeviation(personList.length, workLoadSum, workLoadSumOfSquares)
+
+    val maxTasksChange = countChanges.map { (week, change) =>
+      Week.maxTasksScore(taskCount(week) + change, maxTasksPerWeek) -
+        Week.maxTasksScore(taskCount(week), maxTasksPerWeek)
+    }.sum
+
+    ScoreDelta(scoreChange, scoreChange - standardDeviationChange, maxTasksChange)
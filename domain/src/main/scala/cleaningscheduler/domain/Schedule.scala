@@ -28,6 +28,13 @@ object Schedule:
         taskAssignment = relevantWeekList.head._1.taskAssignment.updated(task, person))
       schedule.copy(weekList = schedule.weekList.updated(index, updatedWeek))
 
+  protected[domain] def removeTaskFromWeek(schedule: Schedule,
+                                           weekNumber: Int,
+                                           task: Task): Schedule =
+    schedule.copy(weekList = schedule.weekList.map { week =>
+      if week.weekNumber == weekNumber then week.copy(taskAssignment = week.taskAssignment - task) else week
+    })
+
   protected[domain] def reassignTask(schedule: Schedule,
                                      task: Task,
                                      weekOption: List[(Int, Person)]): Schedule =
@@ -57,11 +64,24 @@ object Schedule:
         }.sum
       }.sum
     }
-    val mean = workLoads.sum.toDouble / workLoads.size
-    val variance = workLoads.map(x => math.pow(x - mean, 2)).sum / workLoads.size
-    val standardDev = math.sqrt(variance).toInt
+    val standardDev = standardDeviation(workLoads.size,
+      workLoads.map(_.toLong).sum, workLoads.map(x => x.toLong * x).sum)
     regularScore - standardDev
 
+  // Worked out on whole numbers, count² * variance = count * sumOfSquares - sum²,
+  // so the incremental scores round exactly the same way as a full recount
+  protected[domain] def standardDeviation(count: Int, sum: Long, sumOfSquares: Long): Int =
+    if count == 0 then 0
+    else
+      val scaledVariance = count * sumOfSquares - sum * sum
+      (integerSquareRoot(scaledVariance) / count).toInt
+
+  private def integerSquareRoot(value: Long): Long =
+    val estimate = math.sqrt(value.toDouble).toLong
+    if estimate * estimate > value then estimate - 1
+    else if (estimate + 1) * (estimate + 1) <= value then estimate + 1
+    else estimate
+
 
   protected[domain] def defaultSchedule(taskList: List[Task],
                                         startWeek: Int,
@@ -0,0 +1,80 @@
+package cleaningscheduler.domain
+
+import java.util
+import scala.jdk.CollectionConverters.*
+
+// The persons of a request compiled once, so that many schedules can be scored without
+// looking up availability maps or filtering the task assignment per person. Every week
+// is scored in one pass over its assignment, which adds the costs to a load per person,
+// and the balanced score collects the workloads in the same pass. The scores are exactly
+// those of Schedule.calculateScore, calculateScoreBalanced and calculateScoreMaxTasks.
+// A person that is listed twice counts twice, tasks of persons outside the list only
+// count for the max tasks score.
+class ScoringContext(personList: List[Person]):
+  private val persons: Array[Person] = personList.distinct.toArray
+  private val weights: Array[Int] = persons.map(person => personList.count(_ == person))
+  private val firstWeek: Int = persons.flatMap(_.availabilityAssignment.keys).minOption.getOrElse(0)
+  private val lastWeek: Int = persons.flatMap(_.availabilityAssignment.keys).maxOption.getOrElse(-1)
+  // availability(person)(weekNumber - firstWeek)
+  private val availability: Array[Array[Int]] = persons.map { person =>
+    (firstWeek to lastWeek).map(weekNumber => person.availabilityAssignment.getOrElse(weekNumber, 0)).toArray
+  }
+  private val loads: Array[Int] = new Array[Int](persons.length)
+  private val workLoads: Array[Long] = new Array[Long](persons.length)
+
+  def score(schedule: ISchedule): Int = synchronized {
+    scoreWeeks(schedule.asInstanceOf[Schedule])
+  }
+
+  def scoreBalanced(schedule: ISchedule): Int = synchronized {
+    java.util.Arrays.fill(workLoads, 0L)
+    val regularScore = scoreWeeks(schedule.asInstanceOf[Schedule])
+    var sum = 0L
+    var sumOfSquares = 0L
+    var person = 0
+    while person < persons.length do
+      sum += weights(person) * workLoads(person)
+      sumOfSquares += weights(person) * workLoads(person) * workLoads(person)
+      person += 1
+    regularScore - Schedule.standardDeviation(personList.length, sum, sumOfSquares)
+  }
+
+  def scoreMaxTasks(schedule: ISchedule, maxTasksPerWeek: Int): Int =
+    schedule.asInstanceOf[Schedule].weekList
+      .map(week => Week.maxTasksScore(week.taskAssignment.size, maxTasksPerWeek))
+      .sum
+
+  def scores(scheduleList: util.List[ISchedule]): util.List[Integer] =
+    scheduleList.asScala.map(schedule => Int.box(score(schedule))).asJava
+
+  // Also adds the loads of every week to workLoads
+  private def scoreWeeks(schedule: Schedule): Int =
+    var total = 0
+    schedule.weekList.foreach { week =>
+      java.util.Arrays.fill(loads, 0)
+      week.taskAssignment.foreach { (task, assignedPerson) =>
+        val person = indexOf(assignedPerson)
+        if person >= 0 then loads(person) += task.costs
+      }
+      var person = 0
+      while person < persons.length do
+        total += weights(person) * Week.personScore(availabilityOf(person, week.weekNumber), loads(person))
+        workLoads(person) += loads(person)
+        person += 1
+    }
+    total
+
+  private def availabilityOf(person: Int, weekNumber: Int): Int =
+    if weekNumber < firstWeek || weekNumber > lastWeek then 0
+    else availability(person)(weekNumber - firstWeek)
+
+  // Households are small, so the persons are searched in order instead of hashed. The
+  // availability maps are only compared for a person with the same name.
+  private def indexOf(person: Person): Int =
+    var index = 0
+    while index < persons.length && !isSamePerson(persons(index), person) do
+      index += 1
+    if index < persons.length then index else -1
+
+  private def isSamePerson(listed: Person, assigned: Person): Boolean =
+    (listed eq assigned) || (listed.name == assigned.name && listed == assigned)
@@ -21,7 +21,9 @@ object Week:
     week.copy(taskAssignment = newTaskAssignment)
 
   protected[domain] def calculateScoreMaxTasks(week: Week, maxTasks:Int): Int =
-    val numberOfTasks = week.taskAssignment.keys.size
+    maxTasksScore(week.taskAssignment.keys.size, maxTasks)
+
+  protected[domain] def maxTasksScore(numberOfTasks: Int, maxTasks: Int): Int =
     if (numberOfTasks < maxTasks) maxTasks - numberOfTasks else (-Math.pow(maxTasks - numberOfTasks, 2)).toInt
 
   protected[domain] def calculateScore(week: Week, personList: List[Person]): Int =
@@ -29,5 +31,13 @@ object Week:
       val availability = person.availabilityAssignment.getOrElse(week.weekNumber, 0)
       val tasksForPerson = week.taskAssignment.filter(_._2 == person).keys.toList
       val costs = tasksForPerson.map(task => task.costs).sum
-      if availability >= costs then availability - costs
-        else (-Math.pow(availability - costs, 2)).toInt).sum
\ No newline at end of file
+      personScore(availability, costs)).sum
+
+  // The square is worked out on a Long, a penalty below Int.MinValue is capped there
+  // just like the Double that Math.pow used to give
+  protected[domain] def personScore(availability: Int, costs: Int): Int =
+    if availability >= costs then availability - costs
+    else
+      val difference = availability - costs
+      val square = difference.toLong * difference
+      if square > Int.MaxValue then Int.MinValue else -square.toInt
\ No newline at end of file
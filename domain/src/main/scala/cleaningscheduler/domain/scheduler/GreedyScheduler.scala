@@ -0,0 +1,117 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.{IPerson, ISchedule, ITask, Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+
+import java.util
+import scala.jdk.CollectionConverters.*
+
+// Builds a schedule in one pass, for when an answer is needed right away. The tasks are
+// handled from the highest costs down, every occurrence goes to the person and week
+// with the most availability left, and the next occurrence is looked for within the
+// repeat interval of the week that was picked. A fixed task only looks at its preferred
+// assignee. That takes occurrences x persons x weeks of the repeat interval steps,
+// after sorting the tasks. The weeks form one of the sequences
+// ScheduleSearcher.listOfRelevantWeekSequences would give whenever one fits, and the
+// result is handed to the tree search as the schedule to beat. It isn't proven optimal, and the
+// same schedule is given for the balanced score.
+class GreedyScheduler extends IScheduler with PersonCostsScoring:
+  override def schedule(personList: util.List[IPerson],
+                        taskList: util.List[ITask],
+                        startWeek: Int,
+                        scheduleLength: Int,
+                        isIntervalVariable: Boolean
+                       ): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    GreedyScheduler.scheduleGreedily(personScalaList, taskScalaList, startWeek, scheduleLength, isIntervalVariable)
+
+  override def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScore(schedule.asInstanceOf[Schedule], personScalaList)
+
+  override def scheduleBalanced(personList: util.List[IPerson],
+                                taskList: util.List[ITask],
+                                startWeek: Int,
+                                scheduleLength: Int,
+                                isIntervalVariable: Boolean): ISchedule =
+    this.schedule(personList, taskList, startWeek, scheduleLength, isIntervalVariable)
+
+  override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScoreBalanced(schedule.asInstanceOf[Schedule], personScalaList)
+
+object GreedyScheduler:
+  def scheduleGreedily(personList: List[Person],
+                       taskList: List[Task],
+                       startWeek: Int,
+                       scheduleLength: Int,
+                       isIntervalVariable: Boolean
+                      ): Schedule =
+    val endWeek = startWeek + scheduleLength
+    val persons = (personList ++ taskList.map(_.preferredAssignee)).distinct.toArray
+    val personIndices = persons.zipWithIndex.toMap
+    // remaining(person)(weekNumber - startWeek)
+    val remaining = persons.map { person =>
+      (startWeek until endWeek).map(weekNumber => person.availabilityAssignment.getOrElse(weekNumber, 0)).toArray
+    }
+    val listedPersons = personList.distinct.map(personIndices).toArray
+
+    // The week from firstWeek to lastWeek and the candidate with the most availability
+    // left, the preferred assignee and then the earlier week win ties
+    def bestCell(task: Task, firstWeek: Int, lastWeek: Int): (Int, Int) =
+      val preferred = personIndices(task.preferredAssignee)
+      val candidates = if task.isPreferredFixed || listedPersons.isEmpty then Array(preferred) else listedPersons
+      var bestWeek = firstWeek
+      var bestPerson = preferred
+      var bestRemaining = Long.MinValue
+      var weekNumber = firstWeek
+      while weekNumber <= lastWeek do
+        var candidate = 0
+        while candidate < candidates.length do
+          val person = candidates(candidate)
+          val left = remaining(person)(weekNumber - startWeek).toLong
+          if left > bestRemaining || left == bestRemaining && weekNumber == bestWeek && person == preferred then
+            bestWeek = weekNumber
+            bestPerson = person
+            bestRemaining = left
+          candidate += 1
+        weekNumber += 1
+      (bestWeek, bestPerson)
+
+    def assign(task: Task, weekNumber: Int, person: Int): (Int, Person) =
+      remaining(person)(weekNumber - startWeek) -= task.costs
+      (weekNumber, persons(person))
+
+    def placeTask(task: Task): List[(Int, Person)] =
+      val minStep = Math.max(1, task.minRepeatInterval)
+      val maxStep = Math.max(minStep, if isIntervalVariable then task.maxRepeatInterval else task.minRepeatInterval)
+      val startsFresh = task.lastDoneAt + task.maxRepeatInterval < startWeek ||
+        task.lastDoneAt + task.minRepeatInterval > endWeek
+      val (firstWeek, lastWeek) =
+        if !task.isRepeated then (startWeek, Math.min(startWeek + task.maxRepeatInterval, endWeek - 1))
+        else if startsFresh then (startWeek, startWeek)
+        else (Math.max(startWeek, task.lastDoneAt + task.minRepeatInterval),
+          Math.min(endWeek - 1, task.lastDoneAt + task.maxRepeatInterval))
+
+      if scheduleLength <= 0 then List()
+      else if firstWeek > lastWeek then
+        // no sequence fits in the schedule, so only the persons of the default weeks are picked
+        Schedule.relevantWeeks(task, startWeek, scheduleLength).toList.map { weekNumber =>
+          val (_, person) = bestCell(task, weekNumber, weekNumber)
+          assign(task, weekNumber, person)
+        }
+      else
+        val (week, person) = bestCell(task, firstWeek, lastWeek)
+        var cells = List(assign(task, week, person))
+        var lastPlaced = week
+        while task.isRepeated && lastPlaced + maxStep < endWeek do
+          val (nextWeek, nextPerson) = bestCell(task, lastPlaced + minStep, Math.min(endWeek - 1, lastPlaced + maxStep))
+          cells = assign(task, nextWeek, nextPerson) :: cells
+          lastPlaced = nextWeek
+        cells.reverse
+
+    val emptySchedule = Schedule(DateTime.now(), (startWeek until endWeek).map(Week(_, Map())).toList)
+    taskList.sortBy(task => -task.costs).foldLeft(emptySchedule) { (schedule, task) =>
+      Schedule.reassignTask(schedule, task, placeTask(task))
+    }
@@ -2,6 +2,7 @@ package cleaningscheduler.domain.scheduler
 
 import cleaningscheduler.domain.{IPerson, ISchedule, ITask}
 import java.util
+import scala.jdk.CollectionConverters.*
 
 trait IScheduler {
   def schedule(personList: util.List[IPerson],
@@ -13,6 +14,10 @@ trait IScheduler {
   
   def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int
 
+  // The scores of many schedules for the same persons, like getAllSchedules needs them
+  def calculateScores(scheduleList: util.List[ISchedule], personList: util.List[IPerson]): util.List[Integer] =
+    scheduleList.asScala.map(schedule => Int.box(calculateScore(schedule, personList))).asJava
+
   def scheduleBalanced(personList: util.List[IPerson],
                taskList: util.List[ITask],
                startWeek: Int,
@@ -22,4 +27,32 @@ trait IScheduler {
 
   def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int
 
+  // Returns the best schedule found within maxMillis milliseconds, a maxMillis of 0 or
+  // less means no deadline. Schedulers that can't stop early search to the end.
+  def scheduleWithinTime(personList: util.List[IPerson],
+                         taskList: util.List[ITask],
+                         startWeek: Int,
+                         scheduleLength: Int,
+                         isIntervalVariable: Boolean,
+                         isBalanced: Boolean,
+                         maxMillis: Long
+                        ): TimedSchedule =
+    val schedule =
+      if isBalanced then scheduleBalanced(personList, taskList, startWeek, scheduleLength, isIntervalVariable)
+      else this.schedule(personList, taskList, startWeek, scheduleLength, isIntervalVariable)
+    TimedSchedule(schedule, false)
+
+  // Schedules the weeks of baseSchedule again after persons or tasks were edited.
+  // Schedulers that can't start from an existing schedule make a new one for those weeks.
+  def reschedule(baseSchedule: ISchedule,
+                 personList: util.List[IPerson],
+                 taskList: util.List[ITask],
+                 isIntervalVariable: Boolean,
+                 isBalanced: Boolean,
+                 maxMillis: Long
+                ): TimedSchedule =
+    val weekNumbers = baseSchedule.weekList.map(_.weekNumber)
+    val startWeek = weekNumbers.minOption.getOrElse(1)
+    val scheduleLength = weekNumbers.maxOption.map(_ - startWeek + 1).getOrElse(0)
+    scheduleWithinTime(personList, taskList, startWeek, scheduleLength, isIntervalVariable, isBalanced, maxMillis)
 }
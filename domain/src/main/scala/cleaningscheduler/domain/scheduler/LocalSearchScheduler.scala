@@ -0,0 +1,180 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.{IPerson, ISchedule, ITask, IncrementalScore, Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+
+import java.util
+import scala.jdk.CollectionConverters.*
+import scala.util.Random
+
+// Simulated annealing for households that are too large for the tree search. It starts
+// from the default schedule and either gives a task occurrence to another person or
+// shifts it to another week, as long as the weeks of the task still form one of the
+// sequences ScheduleSearcher.listOfRelevantWeekSequences would give. Better moves are
+// always taken, worse ones with a chance that drops as the budget runs out. The search
+// stops after maxIterations moves or maxMillis milliseconds, whichever comes first.
+class LocalSearchScheduler(maxIterations: Int, maxMillis: Long, seed: Long) extends IScheduler with PersonCostsScoring:
+  require(maxIterations > 0, "maxIterations should be at least 1")
+  require(maxMillis > 0, "maxMillis should be at least 1")
+
+  def this() = this(LocalSearchScheduler.defaultMaxIterations, LocalSearchScheduler.defaultMaxMillis, 0)
+
+  override def schedule(personList: util.List[IPerson],
+                        taskList: util.List[ITask],
+                        startWeek: Int,
+                        scheduleLength: Int,
+                        isIntervalVariable: Boolean
+                       ): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = LocalSearchScheduler.searchSchedule(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, false, maxIterations, maxMillis, seed)
+    schedule
+
+  override def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScore(schedule.asInstanceOf[Schedule], personScalaList)
+
+  override def scheduleBalanced(personList: util.List[IPerson],
+                                taskList: util.List[ITask],
+                                startWeek: Int,
+                                scheduleLength: Int,
+                                isIntervalVariable: Boolean): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = LocalSearchScheduler.searchSchedule(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, true, maxIterations, maxMillis, seed)
+    schedule
+
+  override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScoreBalanced(schedule.asInstanceOf[Schedule], personScalaList)
+
+  // Local search never proves a schedule optimal, a deadline only shortens its own budget
+  override def scheduleWithinTime(personList: util.List[IPerson],
+                                  taskList: util.List[ITask],
+                                  startWeek: Int,
+                                  scheduleLength: Int,
+                                  isIntervalVariable: Boolean,
+                                  isBalanced: Boolean,
+                                  maxMillis: Long
+                                 ): TimedSchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val budget = if maxMillis > 0 then Math.min(maxMillis, this.maxMillis) else this.maxMillis
+    val (schedule, _) = LocalSearchScheduler.searchSchedule(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, isBalanced, maxIterations, budget, seed)
+    TimedSchedule(schedule, false)
+
+object LocalSearchScheduler:
+  val defaultMaxIterations: Int = 200000
+  val defaultMaxMillis: Long = 2000
+  private val finalTemperature = 0.05
+
+  def searchSchedule(personList: List[Person],
+                     taskList: List[Task],
+                     startWeek: Int,
+                     scheduleLength: Int,
+                     isIntervalVariable: Boolean,
+                     isBalanced: Boolean,
+                     maxIterations: Int,
+                     maxMillis: Long,
+                     seed: Long
+                    ): (Schedule, Int) =
+    val random = new Random(seed)
+    val defaultSchedule = Schedule.defaultSchedule(taskList, startWeek, scheduleLength, DateTime.now())
+    val incrementalScore = new IncrementalScore(defaultSchedule, personList)
+
+    def currentScore: Int = if isBalanced then incrementalScore.scoreBalanced else incrementalScore.score
+
+    def snapshot: Map[Task, List[(Int, Person)]] =
+      taskList.map(task => (task, incrementalScore.assignmentOf(task))).toMap
+
+    val movableTasks = taskList.filter(task => incrementalScore.assignmentOf(task).nonEmpty).toArray
+    val initialTemperature = taskList.map(_.costs).maxOption.getOrElse(0).max(1).toDouble
+    val startTime = System.currentTimeMillis()
+    var bestAssignment = snapshot
+    var bestScore = currentScore
+    var iteration = 0
+
+    while movableTasks.nonEmpty && iteration < maxIterations && System.currentTimeMillis() - startTime < maxMillis do
+      val progress = Math.max(iteration.toDouble / maxIterations,
+        (System.currentTimeMillis() - startTime).toDouble / maxMillis)
+      val temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, progress)
+      val task = movableTasks(random.nextInt(movableTasks.length))
+      val weekOption = incrementalScore.assignmentOf(task)
+      val move =
+        if random.nextBoolean() then swapPerson(task, weekOption, personList, random)
+        else shiftWeek(task, weekOption, startWeek, scheduleLength, isIntervalVariable, random)
+
+      move.foreach { newWeekOption =>
+        val delta = incrementalScore.reassignTaskDelta(task, newWeekOption)
+        val scoreChange = if isBalanced then delta.scoreBalanced else delta.score
+        if scoreChange >= 0 || random.nextDouble() < Math.exp(scoreChange / temperature) then
+          incrementalScore.reassignTask(task, newWeekOption)
+          if currentScore > bestScore then
+            bestScore = currentScore
+            bestAssignment = snapshot
+      }
+      iteration += 1
+
+    val bestSchedule = taskList.foldLeft(defaultSchedule) { (schedule, task) =>
+      Schedule.reassignTask(schedule, task, bestAssignment(task))
+    }
+    (bestSchedule, bestScore)
+
+  private def swapPerson(task: Task,
+                         weekOption: List[(Int, Person)],
+                         personList: List[Person],
+                         random: Random
+                        ): Option[List[(Int, Person)]] =
+    val occurrence = random.nextInt(weekOption.length)
+    val (weekNumber, person) = weekOption(occurrence)
+    val otherPersons = personList.filter(_ != person)
+    if task.isPreferredFixed || otherPersons.isEmpty then None
+    else Some(weekOption.updated(occurrence, (weekNumber, otherPersons(random.nextInt(otherPersons.length)))))
+
+  private def shiftWeek(task: Task,
+                        weekOption: List[(Int, Person)],
+                        startWeek: Int,
+                        scheduleLength: Int,
+                        isIntervalVariable: Boolean,
+                        random: Random
+                       ): Option[List[(Int, Person)]] =
+    val occurrence = random.nextInt(weekOption.length)
+    val (weekNumber, person) = weekOption(occurrence)
+    val span = Math.max(1,
+      if task.isRepeated then task.maxRepeatInterval - task.minRepeatInterval else task.maxRepeatInterval)
+    val shift = random.nextInt(span) + 1
+    val newWeekOption = weekOption.updated(occurrence,
+      (if random.nextBoolean() then weekNumber + shift else weekNumber - shift, person))
+    Some(newWeekOption.sortBy(_._1))
+      .filter(option => isValidWeekSequence(task, option.map(_._1), startWeek, scheduleLength, isIntervalVariable))
+
+  // The same sequences as ScheduleSearcher.listOfRelevantWeekSequences, checked instead of
+  // generated. The week numbers are expected in ascending order.
+  protected[scheduler] def isValidWeekSequence(task: Task,
+                                               weekNumbers: List[Int],
+                                               startWeek: Int,
+                                               scheduleLength: Int,
+                                               isIntervalVariable: Boolean
+                                              ): Boolean =
+    val endWeek = startWeek + scheduleLength
+    val maxInterval = if isIntervalVariable then task.maxRepeatInterval else task.minRepeatInterval
+    val inSchedule = weekNumbers.nonEmpty && weekNumbers.distinct.length == weekNumbers.length &&
+      weekNumbers.forall(week => week >= startWeek && week < endWeek)
+
+    if !inSchedule then false
+    else if !task.isRepeated then
+      weekNumbers.length == 1 && weekNumbers.head <= startWeek + task.maxRepeatInterval
+    else
+      val startsFresh = task.lastDoneAt + task.maxRepeatInterval < startWeek ||
+        task.lastDoneAt + task.minRepeatInterval > endWeek
+      val validStart =
+        if startsFresh then weekNumbers.head == startWeek
+        else weekNumbers.head >= task.lastDoneAt + task.minRepeatInterval &&
+          weekNumbers.head <= task.lastDoneAt + task.maxRepeatInterval
+      val validIntervals = weekNumbers.zip(weekNumbers.tail).forall { (week, next) =>
+        next - week >= task.minRepeatInterval && next - week <= maxInterval
+      }
+      validStart && validIntervals && weekNumbers.last + maxInterval >= endWeek
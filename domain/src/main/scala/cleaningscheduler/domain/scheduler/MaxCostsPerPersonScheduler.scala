@@ -1,14 +1,22 @@
 package cleaningscheduler.domain.scheduler
 
-import cleaningscheduler.domain.scheduler.MaxCostsPerPersonScheduler.scheduleWithCostFunction
-import cleaningscheduler.domain.search.ScheduleSearcher
+import cleaningscheduler.domain.scheduler.MaxCostsPerPersonScheduler.{scheduleWithCostFunction, searchWithCostFunction}
+import cleaningscheduler.domain.search.{CostFunction, DomainPruning, ScheduleSearcher, WeekDecomposition}
 import cleaningscheduler.domain.{IPerson, ISchedule, ITask, Person, Schedule, Task}
 import com.github.nscala_time.time.Imports.DateTime
 
 import java.util
+import java.util.concurrent.ForkJoinPool
+import scala.concurrent.duration.{Deadline, DurationLong}
 import scala.jdk.CollectionConverters.*
 
-class MaxCostsPerPersonScheduler extends IScheduler:
+// The searches of all requests share the workers of one pool
+class MaxCostsPerPersonScheduler(parallelism: Int) extends IScheduler with PersonCostsScoring:
+  require(parallelism > 0, "parallelism should be at least 1")
+  private val pool = new ForkJoinPool(parallelism)
+
+  def this() = this(1)
+
   override def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int =
     val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
     Schedule.calculateScore(schedule.asInstanceOf[Schedule], personScalaList)
@@ -23,7 +31,7 @@ class MaxCostsPerPersonScheduler extends IScheduler:
     val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
 
     scheduleWithCostFunction(personScalaList, taskScalaList, startWeek, scheduleLength, isIntervalVariable,
-      Schedule.calculateScore(_, personScalaList)
+      CostFunction.PersonCosts(personScalaList), pool
     )
 
   override def scheduleBalanced(personList: util.List[IPerson],
@@ -35,31 +43,117 @@ class MaxCostsPerPersonScheduler extends IScheduler:
     val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
 
     scheduleWithCostFunction(personScalaList, taskScalaList, startWeek, scheduleLength, isIntervalVariable,
-      Schedule.calculateScoreBalanced(_, personScalaList)
+      CostFunction.BalancedPersonCosts(personScalaList), pool
     )
 
   override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int =
     val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
     Schedule.calculateScoreBalanced(schedule.asInstanceOf[Schedule], personScalaList)
 
+  override def scheduleWithinTime(personList: util.List[IPerson],
+                                  taskList: util.List[ITask],
+                                  startWeek: Int,
+                                  scheduleLength: Int,
+                                  isIntervalVariable: Boolean,
+                                  isBalanced: Boolean,
+                                  maxMillis: Long
+                                 ): TimedSchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val costFunction =
+      if isBalanced then CostFunction.BalancedPersonCosts(personScalaList)
+      else CostFunction.PersonCosts(personScalaList)
+    val deadline = if maxMillis > 0 then Some(Deadline.now + maxMillis.millis) else None
+
+    val (schedule, isProvenOptimal) = searchWithCostFunction(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, costFunction, pool, deadline)
+    TimedSchedule(schedule, isProvenOptimal)
+
+  // Only part of the schedule is searched again, so it is never proven optimal
+  override def reschedule(baseSchedule: ISchedule,
+                          personList: util.List[IPerson],
+                          taskList: util.List[ITask],
+                          isIntervalVariable: Boolean,
+                          isBalanced: Boolean,
+                          maxMillis: Long
+                         ): TimedSchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val costFunction =
+      if isBalanced then CostFunction.BalancedPersonCosts(personScalaList)
+      else CostFunction.PersonCosts(personScalaList)
+    val deadline = if maxMillis > 0 then Some(Deadline.now + maxMillis.millis) else None
+
+    val schedule = WarmStartRescheduler.reschedule(baseSchedule.asInstanceOf[Schedule], personScalaList,
+      taskScalaList, isIntervalVariable, costFunction, deadline)
+    TimedSchedule(schedule, false)
+
 object MaxCostsPerPersonScheduler:
   def scheduleWithCostFunction(personList: List[Person],
                                taskList: List[Task],
                                startWeek: Int,
                                scheduleLength: Int,
                                isIntervalVariable: Boolean,
-                               costFunction: Schedule => Int
+                               costFunction: CostFunction,
+                               pool: ForkJoinPool
                               ): ISchedule =
+    val (schedule, _) = searchWithCostFunction(personList, taskList, startWeek, scheduleLength, isIntervalVariable,
+      costFunction, pool, None)
+    schedule
 
+  // Large schedules are searched in the quick version
+  def searchWithCostFunction(personList: List[Person],
+                             taskList: List[Task],
+                             startWeek: Int,
+                             scheduleLength: Int,
+                             isIntervalVariable: Boolean,
+                             costFunction: CostFunction,
+                             pool: ForkJoinPool,
+                             deadline: Option[Deadline]
+                            ): (Schedule, Boolean) =
     val quickVersion = (isIntervalVariable && ((scheduleLength > 4) || (personList.length + taskList.length >= 7)))
       || (!isIntervalVariable && ((scheduleLength > 6) || (personList.length + taskList.length >= 10)))
+    searchWithCostFunction(personList, taskList, startWeek, scheduleLength, isIntervalVariable, costFunction,
+      pool, deadline, quickVersion)
 
+  // The schedule is only proven optimal when the search finished and didn't sample the options.
+  // Schedules with fixed weeks and a score per week are searched week by week, the quick
+  // version only over the best ranked persons of every week.
+  def searchWithCostFunction(personList: List[Person],
+                             taskList: List[Task],
+                             startWeek: Int,
+                             scheduleLength: Int,
+                             isIntervalVariable: Boolean,
+                             costFunction: CostFunction,
+                             pool: ForkJoinPool,
+                             deadline: Option[Deadline],
+                             quickVersion: Boolean
+                            ): (Schedule, Boolean) =
     val defaultSchedule = Schedule.defaultSchedule(taskList, startWeek, scheduleLength, DateTime.now())
 
-    val optionsList = ScheduleSearcher.getOptionsList(taskList, personList,
-      startWeek, scheduleLength, quickVersion, isIntervalVariable)
-    val optionsTree = ScheduleSearcher.buildOptionTree(optionsList)
-    val scheduleTree = ScheduleSearcher.buildScheduleTree(optionsTree, defaultSchedule)
+    if WeekDecomposition.canDecompose(taskList, personList, startWeek, scheduleLength, isIntervalVariable,
+      costFunction) then
+      val result =
+        if quickVersion then
+          WeekDecomposition.searchByWeek(defaultSchedule, taskList, personList, costFunction, DomainPruning.quick,
+            pool, deadline, WeekDecomposition.quickWeekCombinations)
+        else
+          WeekDecomposition.searchByWeek(defaultSchedule, taskList, personList, costFunction, DomainPruning.exact,
+            pool, deadline)
+      (result.schedule, result.isComplete && !quickVersion)
+    else
+      val domainPruning = if quickVersion then DomainPruning.quick else DomainPruning.exact
+      val optionsList = ScheduleSearcher.getOptionsList(taskList, personList,
+        startWeek, scheduleLength, quickVersion, isIntervalVariable, Some(domainPruning))
+      // The greedy schedule makes the pruning start tight
+      val incumbent = Some(GreedyScheduler.scheduleGreedily(personList, taskList, startWeek, scheduleLength,
+        isIntervalVariable))
 
-    val (schedule, _) = ScheduleSearcher.searchBestSchedule(scheduleTree, costFunction)
-    schedule
+      val result =
+        if pool.getParallelism > 1 then
+          ScheduleSearcher.searchBestScheduleInParallel(optionsList, defaultSchedule, costFunction, pool,
+            deadline, incumbent)
+        else
+          ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule, costFunction, deadline,
+            incumbent)
+      (result.schedule, result.isComplete && !quickVersion)
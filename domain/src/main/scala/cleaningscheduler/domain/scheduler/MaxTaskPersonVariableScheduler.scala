@@ -2,11 +2,12 @@ package cleaningscheduler.domain.scheduler
 
 import cleaningscheduler.domain.Schedule.calculateScoreMaxTasks
 import cleaningscheduler.domain.scheduler.MaxTaskPersonVariableScheduler.scheduleMaxTasksPersonVariable
-import cleaningscheduler.domain.search.{ScheduleSearcher, ScheduleSearcherOnlyPersonVariable}
+import cleaningscheduler.domain.search.{CostFunction, ScheduleSearcherOnlyPersonVariable, SearchResult}
 import cleaningscheduler.domain.{IPerson, ISchedule, ITask, Person, Schedule, Task}
 import com.github.nscala_time.time.Imports.DateTime
 
 import java.util
+import scala.concurrent.duration.{Deadline, DurationLong}
 import scala.jdk.CollectionConverters.*
 
 class MaxTaskPersonVariableScheduler extends IScheduler:
@@ -36,6 +37,20 @@ class MaxTaskPersonVariableScheduler extends IScheduler:
   override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int = 
     this.calculateScore(schedule, 4) 
 
+  override def scheduleWithinTime(personList: util.List[IPerson],
+                                  taskList: util.List[ITask],
+                                  startWeek: Int,
+                                  scheduleLength: Int,
+                                  isIntervalVariable: Boolean,
+                                  isBalanced: Boolean,
+                                  maxMillis: Long
+                                 ): TimedSchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val deadline = if maxMillis > 0 then Some(Deadline.now + maxMillis.millis) else None
+    val result = searchMaxTasksPersonVariable(personScalaList, taskScalaList, startWeek, scheduleLength, 4, deadline)
+    TimedSchedule(result.schedule, result.isComplete)
+
 object MaxTaskPersonVariableScheduler:
   def scheduleMaxTasksPersonVariable(personList: List[Person],
                                      taskList: List[Task],
@@ -43,11 +58,22 @@ object MaxTaskPersonVariableScheduler:
                                      scheduleLength: Int,
                                      maxTasksPerWeek: Int
                                     ): (Schedule, Int) =
+    val result = searchMaxTasksPersonVariable(personList, taskList, startWeek, scheduleLength, maxTasksPerWeek, None)
+    (result.schedule, result.score)
+
+  // The max tasks score doesn't depend on the persons, so the search only tries one
+  // person per task occurrence, see CostFunction.dependsOnPersons
+  def searchMaxTasksPersonVariable(personList: List[Person],
+                                   taskList: List[Task],
+                                   startWeek: Int,
+                                   scheduleLength: Int,
+                                   maxTasksPerWeek: Int,
+                                   deadline: Option[Deadline]
+                                  ): SearchResult =
     val defaultSchedule = Schedule.defaultSchedule(taskList, startWeek, scheduleLength, DateTime.now())
 
     val optionsList = ScheduleSearcherOnlyPersonVariable.getOptionsList(taskList, personList, startWeek, scheduleLength)
-    val optionsTree = ScheduleSearcherOnlyPersonVariable.buildOptionTree(optionsList)
-    val scheduleTree = ScheduleSearcherOnlyPersonVariable.buildScheduleTree(optionsTree, defaultSchedule)
 
-    ScheduleSearcher.searchBestSchedule(scheduleTree, Schedule.calculateScoreMaxTasks(_, maxTasksPerWeek))
+    ScheduleSearcherOnlyPersonVariable.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+      CostFunction.MaxTasks(maxTasksPerWeek), deadline)
 
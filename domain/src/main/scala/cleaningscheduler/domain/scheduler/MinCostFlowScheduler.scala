@@ -0,0 +1,102 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.search.FlowAssignment
+import cleaningscheduler.domain.{IPerson, ISchedule, ITask, IncrementalScore, Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+
+import java.util
+import scala.jdk.CollectionConverters.*
+
+// Schedules the person-only variant in polynomial time: every task keeps the weeks of
+// Schedule.relevantWeeks, like MaxTaskPersonVariableScheduler, so isIntervalVariable is
+// ignored. The weeks don't share tasks, so every week is a small min-cost flow, see
+// FlowAssignment. The rounded flows are then improved by giving single occurrences to
+// another person while the exact score goes up, which is also how the balanced score,
+// that spans all weeks, is taken into account. The result isn't proven optimal, but it
+// is never worse than the default schedule.
+class MinCostFlowScheduler(maxImprovementRounds: Int) extends IScheduler with PersonCostsScoring:
+  require(maxImprovementRounds >= 0, "maxImprovementRounds can't be negative")
+
+  def this() = this(MinCostFlowScheduler.defaultImprovementRounds)
+
+  override def schedule(personList: util.List[IPerson],
+                        taskList: util.List[ITask],
+                        startWeek: Int,
+                        scheduleLength: Int,
+                        isIntervalVariable: Boolean
+                       ): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = MinCostFlowScheduler.scheduleWithFlow(personScalaList, taskScalaList, startWeek,
+      scheduleLength, false, maxImprovementRounds)
+    schedule
+
+  override def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScore(schedule.asInstanceOf[Schedule], personScalaList)
+
+  override def scheduleBalanced(personList: util.List[IPerson],
+                                taskList: util.List[ITask],
+                                startWeek: Int,
+                                scheduleLength: Int,
+                                isIntervalVariable: Boolean): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = MinCostFlowScheduler.scheduleWithFlow(personScalaList, taskScalaList, startWeek,
+      scheduleLength, true, maxImprovementRounds)
+    schedule
+
+  override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScoreBalanced(schedule.asInstanceOf[Schedule], personScalaList)
+
+object MinCostFlowScheduler:
+  val defaultImprovementRounds: Int = 10
+
+  def scheduleWithFlow(personList: List[Person],
+                       taskList: List[Task],
+                       startWeek: Int,
+                       scheduleLength: Int,
+                       isBalanced: Boolean,
+                       maxImprovementRounds: Int
+                      ): (Schedule, Int) =
+    val defaultSchedule = Schedule.defaultSchedule(taskList, startWeek, scheduleLength, DateTime.now())
+    val overloadStep = Math.max(1, taskList.map(_.costs).filter(_ > 0).minOption.getOrElse(1))
+    val flowSchedule = defaultSchedule.copy(weekList = defaultSchedule.weekList.map { week =>
+      val weekTasks = taskList.filter(week.taskAssignment.contains)
+      Week.changeTaskAssignment(week,
+        FlowAssignment.assignWeek(week.weekNumber, weekTasks, personList, overloadStep))
+    })
+
+    val incrementalScore = new IncrementalScore(flowSchedule, personList)
+    def currentScore: Int = if isBalanced then incrementalScore.scoreBalanced else incrementalScore.score
+
+    val persons = personList.distinct
+    val occurrences = for
+      week <- flowSchedule.weekList
+      task <- taskList
+      if week.taskAssignment.contains(task) && !task.isPreferredFixed
+    yield (week.weekNumber, task)
+
+    var round = 0
+    var isImproved = persons.nonEmpty
+    while isImproved && round < maxImprovementRounds do
+      isImproved = false
+      occurrences.foreach { (weekNumber, task) =>
+        val (bestPerson, bestGain) = persons.map { person =>
+          val delta = incrementalScore.changeWeekDelta(weekNumber, task, person)
+          (person, if isBalanced then delta.scoreBalanced else delta.score)
+        }.maxBy(_._2)
+        if bestGain > 0 then
+          incrementalScore.changeWeek(weekNumber, task, bestPerson)
+          isImproved = true
+      }
+      round += 1
+
+    val schedule = taskList.foldLeft(flowSchedule) { (currentSchedule, task) =>
+      Schedule.reassignTask(currentSchedule, task, incrementalScore.assignmentOf(task))
+    }
+    val defaultScore =
+      if isBalanced then Schedule.calculateScoreBalanced(defaultSchedule, personList)
+      else Schedule.calculateScore(defaultSchedule, personList)
+    if defaultScore > currentScore then (defaultSchedule, defaultScore) else (schedule, currentScore)
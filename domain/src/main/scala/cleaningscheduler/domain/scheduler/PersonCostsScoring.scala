@@ -0,0 +1,13 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.{IPerson, ISchedule, Person, ScoringContext}
+
+import java.util
+import scala.jdk.CollectionConverters.*
+
+// For schedulers that score with the costs per person: the persons are compiled into a
+// ScoringContext once for all schedules instead of once per schedule
+trait PersonCostsScoring extends IScheduler:
+  override def calculateScores(scheduleList: util.List[ISchedule], personList: util.List[IPerson]): util.List[Integer] =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    new ScoringContext(personScalaList).scores(scheduleList)
@@ -0,0 +1,165 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.search.CostFunction
+import cleaningscheduler.domain.{IPerson, ISchedule, ITask, Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+
+import java.util
+import java.util.concurrent.ForkJoinPool
+import scala.concurrent.duration.{Deadline, DurationLong}
+import scala.jdk.CollectionConverters.*
+
+// Schedules long horizons, like a year, as a row of short windows that are searched one
+// after the other with MaxCostsPerPersonScheduler. Only the weeks of a window before its
+// overlap with the next window are kept. The next window starts after them, with
+// lastDoneAt of every task moved to the last kept week it was done in, so the repeat
+// intervals carry over. A task that isn't repeated and was kept in an earlier window is
+// left out of the later ones. The search space grows with the window instead of the
+// whole horizon, at the price of optimality, see scoreLoss. The balanced score is only
+// balanced within every window.
+class RollingHorizonScheduler(windowLength: Int, overlap: Int, parallelism: Int) extends IScheduler with PersonCostsScoring:
+  require(windowLength > 0, "windowLength should be at least 1")
+  require(overlap >= 0 && overlap < windowLength, "overlap should be at least 0 and less than windowLength")
+  require(parallelism > 0, "parallelism should be at least 1")
+  private val pool = new ForkJoinPool(parallelism)
+
+  def this() = this(RollingHorizonScheduler.defaultWindowLength, RollingHorizonScheduler.defaultOverlap, 1)
+
+  override def schedule(personList: util.List[IPerson],
+                        taskList: util.List[ITask],
+                        startWeek: Int,
+                        scheduleLength: Int,
+                        isIntervalVariable: Boolean
+                       ): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = RollingHorizonScheduler.scheduleRolling(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, CostFunction.PersonCosts(personScalaList), windowLength, overlap,
+      pool, None)
+    schedule
+
+  override def calculateScore(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScore(schedule.asInstanceOf[Schedule], personScalaList)
+
+  override def scheduleBalanced(personList: util.List[IPerson],
+                                taskList: util.List[ITask],
+                                startWeek: Int,
+                                scheduleLength: Int,
+                                isIntervalVariable: Boolean): ISchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val (schedule, _) = RollingHorizonScheduler.scheduleRolling(personScalaList, taskScalaList, startWeek,
+      scheduleLength, isIntervalVariable, CostFunction.BalancedPersonCosts(personScalaList), windowLength, overlap,
+      pool, None)
+    schedule
+
+  override def calculateScoreBalanced(schedule: ISchedule, personList: util.List[IPerson]): Int =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    Schedule.calculateScoreBalanced(schedule.asInstanceOf[Schedule], personScalaList)
+
+  // Every window gets what is left of maxMillis, windows are never proven optimal together
+  override def scheduleWithinTime(personList: util.List[IPerson],
+                                  taskList: util.List[ITask],
+                                  startWeek: Int,
+                                  scheduleLength: Int,
+                                  isIntervalVariable: Boolean,
+                                  isBalanced: Boolean,
+                                  maxMillis: Long
+                                 ): TimedSchedule =
+    val personScalaList: List[Person] = personList.asScala.map(_.asInstanceOf[Person]).toList
+    val taskScalaList: List[Task] = taskList.asScala.map(_.asInstanceOf[Task]).toList
+    val costFunction =
+      if isBalanced then CostFunction.BalancedPersonCosts(personScalaList)
+      else CostFunction.PersonCosts(personScalaList)
+    val deadline = if maxMillis > 0 then Some(Deadline.now + maxMillis.millis) else None
+
+    val (schedule, isProvenOptimal) = RollingHorizonScheduler.scheduleRolling(personScalaList, taskScalaList,
+      startWeek, scheduleLength, isIntervalVariable, costFunction, windowLength, overlap, pool, deadline)
+    TimedSchedule(schedule, isProvenOptimal)
+
+object RollingHorizonScheduler:
+  val defaultWindowLength: Int = 4
+  val defaultOverlap: Int = 1
+
+  // The schedule is only proven optimal when it fits in one window that was proven optimal
+  def scheduleRolling(personList: List[Person],
+                      taskList: List[Task],
+                      startWeek: Int,
+                      scheduleLength: Int,
+                      isIntervalVariable: Boolean,
+                      costFunction: CostFunction,
+                      windowLength: Int,
+                      overlap: Int,
+                      pool: ForkJoinPool,
+                      deadline: Option[Deadline]
+                     ): (Schedule, Boolean) =
+    val endWeek = startWeek + scheduleLength
+    val tasksByName = taskList.map(task => (task.name, task)).toMap
+
+    def searchWindows(windowStart: Int, windowTasks: List[Task], keptWeeks: List[Week]): (List[Week], Boolean) =
+      if windowStart >= endWeek then (keptWeeks, false)
+      else
+        val windowEnd = Math.min(windowStart + windowLength, endWeek)
+        val keptEnd = if windowEnd == endWeek then endWeek else windowEnd - overlap
+        val (windowSchedule, isProvenOptimal) = MaxCostsPerPersonScheduler.searchWithCostFunction(personList,
+          windowTasks, windowStart, windowEnd - windowStart, isIntervalVariable, costFunction, pool, deadline)
+        val windowWeeks = windowSchedule.weekList.filter(_.weekNumber < keptEnd)
+        val isSingleWindow = windowStart == startWeek && keptEnd == endWeek
+        if isSingleWindow then (windowWeeks, isProvenOptimal)
+        else
+          val nextTasks = rollForward(windowTasks, windowWeeks, windowStart, keptEnd, isIntervalVariable)
+          searchWindows(keptEnd, nextTasks, keptWeeks ++ windowWeeks)
+
+    val (weekList, isProvenOptimal) = searchWindows(startWeek, taskList, List())
+    // the windows hold the rolled copies of the tasks, the schedule gets the original ones
+    val schedule = Schedule(DateTime.now(), weekList.map { week =>
+      Week(week.weekNumber, week.taskAssignment.map((task, person) => (tasksByName(task.name), person)))
+    })
+    (schedule, isProvenOptimal)
+
+  // The tasks of the window after the one starting at windowStart. A task that isn't
+  // repeated keeps its deadline, maxRepeatInterval counts from the start of the window.
+  // With fixed intervals a repeated task has to come back exactly minRepeatInterval
+  // weeks after the last kept week, so that is also its maxRepeatInterval.
+  private def rollForward(taskList: List[Task],
+                          keptWeeks: List[Week],
+                          windowStart: Int,
+                          nextStart: Int,
+                          isIntervalVariable: Boolean
+                         ): List[Task] =
+    taskList.flatMap { task =>
+      val lastDone = keptWeeks.filter(_.taskAssignment.contains(task)).map(_.weekNumber).maxOption
+      if !task.isRepeated then
+        if lastDone.isDefined then None
+        else Some(task.copy(maxRepeatInterval = Math.max(0, task.maxRepeatInterval - (nextStart - windowStart))))
+      else lastDone match
+        case Some(weekNumber) if isIntervalVariable => Some(task.copy(lastDoneAt = weekNumber))
+        case Some(weekNumber) => Some(task.copy(lastDoneAt = weekNumber, maxRepeatInterval = task.minRepeatInterval))
+        case None => Some(task)
+    }
+
+  // How much score the windows give up against one exact search over the whole schedule,
+  // only meant for schedules small enough to search at once. The exact search never uses
+  // the quick version, so the loss is empty when it isn't proven optimal anyway. Both
+  // searches run on one worker of their own.
+  def scoreLoss(personList: List[Person],
+                taskList: List[Task],
+                startWeek: Int,
+                scheduleLength: Int,
+                isIntervalVariable: Boolean,
+                costFunction: CostFunction,
+                windowLength: Int,
+                overlap: Int
+               ): Option[Int] =
+    val pool = new ForkJoinPool(1)
+    try
+      val (exactSchedule, isProvenOptimal) = MaxCostsPerPersonScheduler.searchWithCostFunction(personList, taskList,
+        startWeek, scheduleLength, isIntervalVariable, costFunction, pool, None, false)
+      Option.when(isProvenOptimal) {
+        val (rollingSchedule, _) = scheduleRolling(personList, taskList, startWeek, scheduleLength,
+          isIntervalVariable, costFunction, windowLength, overlap, pool, None)
+        costFunction(exactSchedule) - costFunction(rollingSchedule)
+      }
+    finally
+      pool.shutdown()
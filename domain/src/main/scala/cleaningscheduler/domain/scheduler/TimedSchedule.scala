@@ -0,0 +1,6 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.ISchedule
+
+// isProvenOptimal is only true when the whole search space was searched before the deadline
+case class TimedSchedule(schedule: ISchedule, isProvenOptimal: Boolean)
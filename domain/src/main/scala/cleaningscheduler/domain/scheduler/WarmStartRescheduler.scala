@@ -0,0 +1,91 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.search.{CostFunction, DomainPruning, ScheduleSearcher, ScheduleSearcherOnlyPersonVariable}
+import cleaningscheduler.domain.{Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+
+import scala.concurrent.duration.Deadline
+
+// Reschedules after a small edit, starting from a stored schedule instead of the default
+// one. Persons and tasks are matched by name, so the base schedule may hold the versions
+// from before the edit. Assignments the edit didn't touch are kept, and two small
+// searches re-optimise the rest:
+// - a task that is new, lost a person, or whose weeks no longer fit its repeat interval
+//   gets its weeks and persons searched again, starting from its old weeks when they
+//   still fit and from its default weeks otherwise;
+// - a task occurrence of a person that is now overloaded in that week, or whose
+//   availability in that week changed, gets its person searched again, week by week.
+// The search starts from the base schedule, so its rescored score is the first bound.
+// The weeks of the base schedule, from its first to its last week, are kept.
+object WarmStartRescheduler:
+  private val maxExactCells = 8
+
+  def reschedule(baseSchedule: Schedule,
+                 personList: List[Person],
+                 taskList: List[Task],
+                 isIntervalVariable: Boolean,
+                 costFunction: CostFunction,
+                 deadline: Option[Deadline]
+                ): Schedule =
+    val baseWeekNumbers = baseSchedule.weekList.map(_.weekNumber)
+    val startWeek = baseWeekNumbers.minOption.getOrElse(1)
+    val scheduleLength = baseWeekNumbers.maxOption.map(_ - startWeek + 1).getOrElse(0)
+    val personsByName = personList.map(person => (person.name, person)).toMap
+    val basePersons = baseSchedule.weekList.flatMap(_.taskAssignment.values).distinct
+
+    val baseCells: Map[String, List[(Int, String)]] = baseSchedule.weekList
+      .flatMap(week => week.taskAssignment.toList.map((task, person) => (task.name, (week.weekNumber, person.name))))
+      .groupMap(_._1)(_._2)
+      .map((taskName, cells) => (taskName, cells.sortBy(_._1)))
+
+    def currentCells(task: Task): Option[List[(Int, Person)]] =
+      baseCells.get(task.name)
+        .filter(cells => cells.forall((_, personName) => personsByName.contains(personName)))
+        .map(cells => cells.map((weekNumber, personName) => (weekNumber, personsByName(personName))))
+        .filter(cells => LocalSearchScheduler.isValidWeekSequence(task, cells.map(_._1), startWeek, scheduleLength,
+          isIntervalVariable))
+
+    val (keptTasks, changedTasks) = taskList.partition(task => currentCells(task).isDefined)
+    val emptySchedule = Schedule(DateTime.now(), (startWeek until startWeek + scheduleLength)
+      .map(weekNumber => Week(weekNumber, Map())).toList)
+    val startSchedule = taskList.foldLeft(emptySchedule) { (schedule, task) =>
+      val cells = currentCells(task).getOrElse(Schedule.relevantWeeks(task, startWeek, scheduleLength)
+        .map(weekNumber => (weekNumber, task.preferredAssignee)).toList)
+      Schedule.reassignTask(schedule, task, cells)
+    }
+
+    val taskSchedule =
+      if changedTasks.isEmpty then startSchedule
+      else
+        val quickVersion = isIntervalVariable && changedTasks.length > 2 || changedTasks.length > 4
+        val domainPruning = if quickVersion then DomainPruning.quick else DomainPruning.exact
+        val optionsList = ScheduleSearcher.getOptionsList(changedTasks, personList, startWeek, scheduleLength,
+          quickVersion, isIntervalVariable, Some(domainPruning))
+        ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, startSchedule, costFunction, deadline).schedule
+
+    def hasChangedAvailability(person: Person, weekNumber: Int): Boolean =
+      basePersons.exists(basePerson => basePerson.name == person.name &&
+        basePerson.availabilityAssignment.getOrElse(weekNumber, 0) !=
+          person.availabilityAssignment.getOrElse(weekNumber, 0))
+
+    def isOverloaded(week: Week, person: Person): Boolean =
+      week.taskAssignment.toList.filter(_._2 == person).map(_._1.costs).sum >
+        person.availabilityAssignment.getOrElse(week.weekNumber, 0)
+
+    val affectedCells = for
+      week <- taskSchedule.weekList
+      task <- keptTasks
+      person <- week.taskAssignment.get(task).toList
+      if !task.isPreferredFixed && (isOverloaded(week, person) || hasChangedAvailability(person, week.weekNumber))
+    yield (task, week.weekNumber)
+
+    // One week at a time keeps every search small, the regular score adds up the weeks anyway
+    affectedCells.groupBy(_._2).toList.sortBy(_._1).foldLeft(taskSchedule) { (schedule, weekCells) =>
+      val (_, cells) = weekCells
+      val domainPruning = if cells.length > maxExactCells then DomainPruning.quick else DomainPruning.exact
+      val optionsList = cells.map { (task, weekNumber) =>
+        (task, weekNumber, domainPruning.candidates(task, weekNumber, personList))
+      }
+      ScheduleSearcherOnlyPersonVariable.searchBestScheduleBranchAndBound(optionsList, schedule, costFunction,
+        deadline).schedule
+    }
@@ -0,0 +1,74 @@
+package cleaningscheduler.domain.search
+
+// Scores a block of candidate schedules of one compiled problem at once, for the
+// searchers to hand their leaves to. The block is stored lane by lane:
+// cells(week * taskCount + task)(lane) is the person of that cell in candidate lane, so
+// the kernel runs over the lanes of one cell, which share their costs and availability.
+// The scores are those of CompactSchedule.score.
+class BatchScorer(problem: CompiledProblem, val laneCount: Int, kernel: LaneKernel):
+  require(laneCount > 0, "laneCount should be at least 1")
+
+  private val weekCount = problem.weekNumbers.length
+  private val taskCount = problem.tasks.length
+  private val cells = Array.ofDim[Int](weekCount * taskCount, laneCount)
+  private val scratchAssignment = Array.ofDim[Int](weekCount, taskCount)
+  private val loads = new Array[Int](laneCount)
+  private val scores = new Array[Int](laneCount)
+  private var size = 0
+
+  def candidateCount: Int = size
+
+  def isFull: Boolean = size == laneCount
+
+  def clear(): Unit = size = 0
+
+  // Adds an int[week][task] matrix as filled by CompactSchedule.copyAssignmentInto and
+  // returns its lane
+  def add(assignment: Array[Array[Int]]): Int =
+    require(!isFull, "The batch is full")
+    var week = 0
+    while week < weekCount do
+      var task = 0
+      while task < taskCount do
+        cells(week * taskCount + task)(size) = assignment(week)(task)
+        task += 1
+      week += 1
+    size += 1
+    size - 1
+
+  def add(schedule: CompactSchedule): Int =
+    schedule.copyAssignmentInto(scratchAssignment)
+    add(scratchAssignment)
+
+  def copyLaneInto(lane: Int, target: Array[Array[Int]]): Unit =
+    require(lane < size, "There is no candidate in lane " + lane)
+    var week = 0
+    while week < weekCount do
+      var task = 0
+      while task < taskCount do
+        target(week)(task) = cells(week * taskCount + task)(lane)
+        task += 1
+      week += 1
+
+  // The scores by lane, the array is reused by the next call
+  def scoreAll(): Array[Int] =
+    java.util.Arrays.fill(scores, 0)
+    var person = 0
+    while person < problem.persons.length do
+      val weight = problem.scoreWeights(person)
+      if weight > 0 then
+        var week = 0
+        while week < weekCount do
+          java.util.Arrays.fill(loads, 0, size, 0)
+          var task = 0
+          while task < taskCount do
+            kernel.addLoads(cells(week * taskCount + task), person, problem.costs(task), loads, size)
+            task += 1
+          kernel.addPersonScores(loads, problem.availability(person)(week), weight, scores, size)
+          week += 1
+      person += 1
+    scores
+
+object BatchScorer:
+  // A multiple of every int vector length, so a full batch fills every vector of a kernel
+  val defaultLaneCount: Int = 64
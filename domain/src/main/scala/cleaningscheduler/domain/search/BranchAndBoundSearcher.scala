@@ -0,0 +1,144 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.Schedule
+
+import java.util.concurrent.atomic.AtomicInteger
+import scala.concurrent.duration.Deadline
+
+// Depth-first search that keeps a second schedule next to the visited one, holding
+// only the options committed so far. Its upper bound is compared with the best
+// score found, and subtrees that can't beat it are skipped. Ties are never
+// searched, so the result is the same schedule an exhaustive search would return.
+// Both schedules are compact and are changed in place, only the best one is turned
+// back into a Schedule. Options that only swap interchangeable persons or tasks of an
+// earlier path are skipped, see SymmetryBreaking, and so are nodes with the same costs
+// as a node that was searched before, see TranspositionTable. When the deadline passes
+// the children of the current node are no longer searched, so the best schedule found
+// so far is returned, marked incomplete. A skipped node counts as pruned.
+// An incumbent, like a greedy schedule, makes the pruning start at its score. Schedules
+// that tie it are still searched, so the result doesn't change, only when no schedule
+// in the tree reaches its score the incumbent itself is returned.
+// With a leafKernel the leaves of the regular score are collected in a BatchScorer and
+// scored a block at a time. The block is scored before any other node, so the best
+// schedule is still the first one found in depth-first order.
+object BranchAndBoundSearcher:
+  protected[domain] def searchBestSchedule(problem: CompiledProblem,
+                                           costFunction: CostFunction,
+                                           deadline: Option[Deadline] = None,
+                                           incumbent: Option[Schedule] = None,
+                                           leafKernel: Option[LaneKernel] = LaneKernel.vectorized
+                                          ): SearchResult =
+    val incumbentScore = incumbent.map(costFunction)
+    val result = searchSubtree(problem, List(), true, costFunction, None, deadline, incumbentScore, leafKernel)
+    orIncumbent(result, incumbent, incumbentScore)
+
+  protected[search] def orIncumbent(result: SearchResult,
+                                    incumbent: Option[Schedule],
+                                    incumbentScore: Option[Int]
+                                   ): SearchResult =
+    (incumbent, incumbentScore) match
+      case (Some(schedule), Some(score)) if result.schedule == null => result.copy(schedule = schedule, score = score)
+      case _ => result
+
+  // Searches the node reached by the option indices in prefix, one per level, and the
+  // subtree below it when searchBelowPrefix is set.
+  // A score found by another worker may come from a later part of the tree, so it
+  // only cuts subtrees that can't reach it. Equal scores are still searched, which
+  // keeps the result independent of the order in which the workers finish.
+  protected[search] def searchSubtree(problem: CompiledProblem,
+                                      prefix: List[Int],
+                                      searchBelowPrefix: Boolean,
+                                      costFunction: CostFunction,
+                                      sharedBestScore: Option[AtomicInteger],
+                                      deadline: Option[Deadline],
+                                      incumbentScore: Option[Int] = None,
+                                      leafKernel: Option[LaneKernel] = LaneKernel.vectorized
+                                     ): SearchResult =
+    val current = new CompactSchedule(problem, problem.initialAssignment)
+    val committed = new CompactSchedule(problem, problem.committedAssignment)
+    val symmetry = new SymmetryState(problem.symmetryBreaking, problem.levels.length)
+    val isCanonicalPrefix = prefix.zipWithIndex.forall { (index, depth) =>
+      symmetry.tryChoose(depth, index) && {
+        current.applyOption(problem.levels(depth)(index), depth)
+        committed.applyOption(problem.levels(depth)(index), depth)
+        true
+      }
+    }
+    val lastDepth = if searchBelowPrefix then problem.levels.length else prefix.length
+    val transpositions =
+      if problem.hasIndependentLevels then Some(new TranspositionTable(TranspositionTable.defaultCapacity)) else None
+
+    val leaves = leafKernel.filter(_ => costFunction.isRegularScore)
+      .map(kernel => new BatchScorer(problem, BatchScorer.defaultLaneCount, kernel))
+
+    val bestAssignment = Array.ofDim[Int](problem.weekNumbers.length, problem.tasks.length)
+    var foundBest = false
+    // one below the incumbent, so a schedule that ties it is still found
+    var bestScore = incumbentScore.map(score => Math.max(score, Int.MinValue + 1) - 1).getOrElse(Int.MinValue)
+    var visitedNodes = 0L
+    var prunedNodes = 0L
+    var isTimedOut = false
+
+    val isBelowSharedBest: Int => Boolean = sharedBestScore match
+      case Some(sharedBest) => bound => bound < sharedBest.get()
+      case None => _ => false
+
+    val isOverdue: () => Boolean = deadline match
+      case Some(searchDeadline) => () => searchDeadline.isOverdue()
+      case None => () => false
+
+    def isPruned(bound: Int): Boolean = bound <= bestScore || isBelowSharedBest(bound)
+
+    def isTransposition(depth: Int): Boolean = transpositions.exists { table =>
+      table.visit(current.stateKey ^ TranspositionTable.mix(depth) ^ symmetry.pathKey(depth))
+    }
+
+    def isNewBest(score: Int): Boolean =
+      val isBetter = score > bestScore
+      if isBetter then
+        foundBest = true
+        bestScore = score
+        sharedBestScore.foreach(_.accumulateAndGet(score, (best, found) => Math.max(best, found)))
+      isBetter
+
+    def scoreLeaves(batch: BatchScorer): Unit =
+      val scores = batch.scoreAll()
+      var lane = 0
+      while lane < batch.candidateCount do
+        if isNewBest(scores(lane)) then batch.copyLaneInto(lane, bestAssignment)
+        lane += 1
+      batch.clear()
+
+    def scorePendingLeaves(): Unit = leaves match
+      case Some(batch) if batch.candidateCount > 0 => scoreLeaves(batch)
+      case _ => ()
+
+    def searchHelper(depth: Int): Unit =
+      if isPruned(costFunction.upperBound(committed)) || isTransposition(depth) then prunedNodes += 1
+      else
+        visitedNodes += 1
+        leaves match
+          case Some(batch) if depth == lastDepth =>
+            batch.add(current)
+            if batch.isFull then scoreLeaves(batch)
+          case _ =>
+            scorePendingLeaves()
+            if isNewBest(costFunction.score(current)) then current.copyAssignmentInto(bestAssignment)
+        if depth < lastDepth then
+          if isOverdue() then isTimedOut = true
+          val options = problem.levels(depth)
+          var index = symmetry.firstOption(depth)
+          while index < options.length && !isTimedOut do
+            if symmetry.tryChoose(depth, index) then
+              current.applyOption(options(index), depth)
+              committed.applyOption(options(index), depth)
+              searchHelper(depth + 1)
+              committed.undoOption(options(index), depth)
+              current.undoOption(options(index), depth)
+            index += 1
+
+    // a prefix that swaps persons or tasks of an earlier one is searched by that prefix
+    if isCanonicalPrefix then searchHelper(prefix.length)
+    scorePendingLeaves()
+    val bestSchedule = if foundBest then problem.toSchedule(bestAssignment) else null.asInstanceOf[Schedule]
+    SearchResult(bestSchedule, if foundBest then bestScore else Int.MinValue, visitedNodes, prunedNodes, !isTimedOut)
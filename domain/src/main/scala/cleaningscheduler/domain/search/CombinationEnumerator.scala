@@ -0,0 +1,80 @@
+package cleaningscheduler.domain.search
+
+import scala.util.Random
+
+// Walks the cartesian product of the options of every level with a mixed-radix counter:
+// digit i is the index into the options of level i and the last level is the fastest
+// digit, which gives the combinations in the order of ScheduleSearcher.getAllCombinedOptions.
+// An enumerator covers the combinations with an index in [from, until), so the range can be
+// skipped through or split into parts for other workers without building the product.
+class CombinationEnumerator[A](levels: IndexedSeq[IndexedSeq[A]], from: Long, until: Long) extends Iterator[List[A]]:
+  require(from >= 0 && from <= until && until <= CombinationEnumerator.size(levels),
+    "The range should lie within the " + CombinationEnumerator.size(levels) + " combinations")
+
+  private val radices = levels.map(_.length).toArray
+  private val digits = new Array[Int](radices.length)
+  private val current = new Array[Int](radices.length)
+  private var position = from
+  setDigits(from)
+
+  def this(levels: IndexedSeq[IndexedSeq[A]]) = this(levels, 0, CombinationEnumerator.size(levels))
+
+  def remaining: Long = until - position
+
+  override def hasNext: Boolean = position < until
+
+  // The option indices of the next combination, one per level. The array is reused by
+  // the next call, so it should be copied to be kept.
+  def nextDigits(): Array[Int] =
+    if !hasNext then throw new NoSuchElementException("There are no combinations left")
+    System.arraycopy(digits, 0, current, 0, digits.length)
+    position += 1
+    increment()
+    current
+
+  override def next(): List[A] =
+    val indices = nextDigits()
+    levels.indices.map(level => levels(level)(indices(level))).toList
+
+  def skip(count: Long): CombinationEnumerator[A] =
+    require(count >= 0, "count can't be negative")
+    position = if count >= remaining then until else position + count
+    setDigits(position)
+    this
+
+  // Two enumerators that together cover the remaining combinations, in order
+  def split: (CombinationEnumerator[A], CombinationEnumerator[A]) =
+    val middle = position + remaining / 2
+    (new CombinationEnumerator(levels, position, middle), new CombinationEnumerator(levels, middle, until))
+
+  private def increment(): Unit =
+    var level = digits.length - 1
+    var hasCarry = true
+    while hasCarry && level >= 0 do
+      digits(level) += 1
+      if digits(level) < radices(level) then hasCarry = false
+      else
+        digits(level) = 0
+        level -= 1
+
+  private def setDigits(index: Long): Unit =
+    var rest = index
+    var level = digits.length - 1
+    while level >= 0 && radices(level) > 0 do
+      digits(level) = (rest % radices(level)).toInt
+      rest /= radices(level)
+      level -= 1
+
+object CombinationEnumerator:
+  // Throws an ArithmeticException when the product doesn't fit in a Long
+  def size[A](levels: IndexedSeq[IndexedSeq[A]]): Long =
+    levels.foldLeft(1L)((product, options) => Math.multiplyExact(product, options.length.toLong))
+
+  def combinationAt[A](levels: IndexedSeq[IndexedSeq[A]], index: Long): List[A] =
+    new CombinationEnumerator(levels, index, index + 1).next()
+
+  // count combinations drawn uniformly, with replacement
+  def sample[A](levels: IndexedSeq[IndexedSeq[A]], count: Int, random: Random): List[List[A]] =
+    val combinations = size(levels)
+    if combinations == 0 then List()
+    else List.fill(count)(combinationAt(levels, random.nextLong(combinations)))
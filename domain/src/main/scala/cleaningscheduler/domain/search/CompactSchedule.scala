@@ -0,0 +1,104 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.search.CompiledProblem.Unassigned
+import cleaningscheduler.domain.{Schedule, Week}
+
+// A mutable schedule of a compiled problem. Next to the int[week][task] matrix it keeps
+// the costs per person and week, the workloads and the number of tasks per week, so
+// the scores are updated while options are applied instead of recounted. Applying an
+// option saves the column of its task for the given depth, undoing it writes that
+// column back. The loops are written out so the search doesn't allocate per node.
+// stateKey is a Zobrist key of the costs per scored person and week and the number of
+// tasks per week, the state every score is computed from, see TranspositionTable.
+class CompactSchedule(problem: CompiledProblem, initialAssignment: Array[Array[Int]]):
+  private val weekCount = problem.weekNumbers.length
+  private val assignment: Array[Array[Int]] = Array.fill(weekCount, problem.tasks.length)(Unassigned)
+  private val load: Array[Array[Int]] = Array.ofDim[Int](problem.persons.length, weekCount)
+  private val workLoad: Array[Long] = new Array[Long](problem.persons.length)
+  private val taskCount: Array[Int] = new Array[Int](weekCount)
+  private val undoColumns: Array[Array[Int]] = Array.ofDim[Int](problem.levels.length, weekCount)
+  private var personScoreSum: Int = problem.persons.indices.map { person =>
+    problem.scoreWeights(person) * problem.availability(person).map(Week.personScore(_, 0)).sum
+  }.sum
+  private var workLoadSum: Long = 0
+  private var workLoadSumOfSquares: Long = 0
+  private val loadKeyBases: Array[Array[Long]] = Array.tabulate(problem.persons.length, weekCount) { (person, week) =>
+    TranspositionTable.mix(person.toLong * weekCount + week)
+  }
+  private val taskCountKeyBases: Array[Long] = Array.tabulate(weekCount)(week => TranspositionTable.mix(-1L - week))
+  // only the changes from the empty schedule are added, which is the same for equal states
+  private var key: Long = 0
+
+  for
+    week <- 0 until weekCount
+    task <- problem.tasks.indices
+  do assign(week, task, initialAssignment(week)(task))
+
+  def score: Int = personScoreSum
+
+  def stateKey: Long = key
+
+  def scoreBalanced: Int =
+    personScoreSum - Schedule.standardDeviation(problem.scoredPersonCount, workLoadSum, workLoadSumOfSquares)
+
+  def scoreMaxTasks(maxTasksPerWeek: Int): Int =
+    var total = 0
+    var week = 0
+    while week < weekCount do
+      total += Week.maxTasksScore(taskCount(week), maxTasksPerWeek)
+      week += 1
+    total
+
+  def applyOption(option: CompiledOption, depth: Int): Unit =
+    val savedColumn = undoColumns(depth)
+    var week = 0
+    while week < weekCount do
+      savedColumn(week) = assignment(week)(option.task)
+      if option.replacesTask then assign(week, option.task, Unassigned)
+      week += 1
+    var cell = 0
+    while cell < option.weeks.length do
+      assign(option.weeks(cell), option.task, option.persons(cell))
+      cell += 1
+
+  def undoOption(option: CompiledOption, depth: Int): Unit =
+    val savedColumn = undoColumns(depth)
+    var week = 0
+    while week < weekCount do
+      assign(week, option.task, savedColumn(week))
+      week += 1
+
+  def copyAssignmentInto(target: Array[Array[Int]]): Unit =
+    var week = 0
+    while week < weekCount do
+      System.arraycopy(assignment(week), 0, target(week), 0, assignment(week).length)
+      week += 1
+
+  def toSchedule: Schedule = problem.toSchedule(assignment)
+
+  private def assign(week: Int, task: Int, person: Int): Unit =
+    val previous = assignment(week)(task)
+    if previous != person then
+      val costs = problem.costs(task)
+      if previous == Unassigned then addTaskCount(week, 1) else addLoad(previous, week, -costs)
+      if person == Unassigned then addTaskCount(week, -1) else addLoad(person, week, costs)
+      assignment(week)(task) = person
+
+  private def addLoad(person: Int, week: Int, costs: Int): Unit =
+    val oldLoad = load(person)(week)
+    val oldWorkLoad = workLoad(person)
+    load(person)(week) = oldLoad + costs
+    workLoad(person) = oldWorkLoad + costs
+    val weight = problem.scoreWeights(person)
+    if weight > 0 then
+      val available = problem.availability(person)(week)
+      personScoreSum += weight * (Week.personScore(available, oldLoad + costs) - Week.personScore(available, oldLoad))
+      workLoadSum += weight * costs
+      workLoadSumOfSquares += weight * ((oldWorkLoad + costs) * (oldWorkLoad + costs) - oldWorkLoad * oldWorkLoad)
+      key ^= TranspositionTable.mix(loadKeyBases(person)(week) + oldLoad) ^
+        TranspositionTable.mix(loadKeyBases(person)(week) + oldLoad + costs)
+
+  private def addTaskCount(week: Int, change: Int): Unit =
+    key ^= TranspositionTable.mix(taskCountKeyBases(week) + taskCount(week)) ^
+      TranspositionTable.mix(taskCountKeyBases(week) + taskCount(week) + change)
+    taskCount(week) += change
@@ -0,0 +1,102 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+
+// One option of a level: the task and the (week, person) cells it is given, all as
+// dense indexes. When replacesTask is set the task is first taken out of every week,
+// like Schedule.reassignTask, otherwise only the given cells change.
+case class CompiledOption(task: Int,
+                          replacesTask: Boolean,
+                          weeks: Array[Int],
+                          persons: Array[Int]
+                         )
+
+// The search problem with every task, person and week replaced by its index, so the
+// searchers can work on int matrices. A schedule is an int[week][task] matrix that
+// holds the index of the assigned person, or Unassigned.
+class CompiledProblem(val createdAt: DateTime,
+                      val weekNumbers: Array[Int],
+                      val tasks: Array[Task],
+                      val costs: Array[Int],
+                      val persons: Array[Person],
+                      val availability: Array[Array[Int]],
+                      val scoreWeights: Array[Int],
+                      val scoredPersonCount: Int,
+                      val initialAssignment: Array[Array[Int]],
+                      val committedAssignment: Array[Array[Int]],
+                      val levels: Array[Array[CompiledOption]]
+                     ):
+  lazy val symmetryBreaking: SymmetryBreaking = SymmetryBreaking.detect(this)
+  lazy val hasIndependentLevels: Boolean = TranspositionTable.isApplicable(this)
+
+  def toSchedule(assignment: Array[Array[Int]]): Schedule =
+    Schedule(createdAt, weekNumbers.indices.map { week =>
+      Week(weekNumbers(week), tasks.indices
+        .filter(task => assignment(week)(task) != CompiledProblem.Unassigned)
+        .map(task => (tasks(task), persons(assignment(week)(task))))
+        .toMap)
+    }.toList)
+
+object CompiledProblem:
+  val Unassigned: Int = -1
+
+  // scoredPersons are the persons the cost function adds up, a person that is listed
+  // twice counts twice, just like in Schedule.calculateScore. When the score doesn't
+  // depend on the persons, options that only differ in their persons give the same
+  // scores, so every level only keeps the first option for every set of weeks. The
+  // search then returns the same schedule, as ties are won by the first option anyway.
+  protected[search] def compile(schedule: Schedule,
+                                committedSchedule: Schedule,
+                                scoredPersons: List[Person],
+                                levels: List[List[(Task, List[(Int, Person)])]],
+                                replacesTask: Boolean,
+                                dependsOnPersons: Boolean = true
+                               ): CompiledProblem =
+    val weekNumbers = schedule.weekList.map(_.weekNumber).toArray
+    val weekIndices = weekNumbers.zipWithIndex.toMap
+    val scheduledAssignments = (schedule.weekList ++ committedSchedule.weekList).flatMap(_.taskAssignment.toList)
+    val options = levels.flatten
+    val tasks = (scheduledAssignments.map(_._1) ++ options.map(_._1)).distinct.toArray
+    val persons = (scoredPersons ++ scheduledAssignments.map(_._2) ++
+      options.flatMap((_, weekOption) => weekOption.map(_._2))).distinct.toArray
+    val taskIndices = tasks.zipWithIndex.toMap
+    val personIndices = persons.zipWithIndex.toMap
+
+    def indexOfWeek(weekNumber: Int): Int =
+      weekIndices.getOrElse(weekNumber,
+        throw new IllegalArgumentException("Can't find week " + weekNumber + " in the schedule"))
+
+    def assignmentMatrix(currentSchedule: Schedule): Array[Array[Int]] =
+      val matrix = Array.fill(weekNumbers.length, tasks.length)(Unassigned)
+      currentSchedule.weekList.foreach { week =>
+        week.taskAssignment.foreach { (task, person) =>
+          matrix(indexOfWeek(week.weekNumber))(taskIndices(task)) = personIndices(person)
+        }
+      }
+      matrix
+
+    val compiledLevels = levels.map { levelOptions =>
+      val distinctOptions =
+        if dependsOnPersons then levelOptions
+        else levelOptions.distinctBy((task, weekOption) => (task, weekOption.map(_._1)))
+      distinctOptions.map { (task, weekOption) =>
+        CompiledOption(taskIndices(task), replacesTask,
+          weekOption.map(cell => indexOfWeek(cell._1)).toArray,
+          weekOption.map(cell => personIndices(cell._2)).toArray)
+      }.toArray
+    }.toArray
+
+    new CompiledProblem(
+      schedule.createdAt,
+      weekNumbers,
+      tasks,
+      tasks.map(_.costs),
+      persons,
+      persons.map(person => weekNumbers.map(weekNumber => person.availabilityAssignment.getOrElse(weekNumber, 0))),
+      persons.map(person => scoredPersons.count(_ == person)),
+      scoredPersons.length,
+      assignmentMatrix(schedule),
+      assignmentMatrix(committedSchedule),
+      compiledLevels
+    )
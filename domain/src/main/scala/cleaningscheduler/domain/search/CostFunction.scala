@@ -0,0 +1,85 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule}
+
+// The cost functions the search engines know how to bound. Assigning an extra
+// task never raises any of these scores, so the score of a schedule holding only
+// the committed assignments is an upper bound for every schedule below it.
+sealed trait CostFunction extends (Schedule => Int):
+  def upperBound(committedSchedule: Schedule): Int
+
+  // The persons whose costs are added up, used to compile the problem for the searchers
+  protected[search] def scoredPersons: List[Person]
+
+  // Whether the score is the sum of a score per week, see WeekDecomposition
+  protected[domain] def isSeparableByWeek: Boolean
+
+  // Whether the score changes when a task is given to another person in the same weeks.
+  // When it doesn't, the searchers only branch over the weeks, see CompiledProblem.compile
+  protected[domain] def dependsOnPersons: Boolean
+
+  // Whether score is CompactSchedule.score, which BatchScorer computes for a block of leaves
+  protected[search] def isRegularScore: Boolean
+
+  protected[search] def score(schedule: CompactSchedule): Int
+
+  protected[search] def upperBound(committedSchedule: CompactSchedule): Int
+
+object CostFunction:
+  case class PersonCosts(personList: List[Person]) extends CostFunction:
+    override def apply(schedule: Schedule): Int = Schedule.calculateScore(schedule, personList)
+
+    override def upperBound(committedSchedule: Schedule): Int =
+      Schedule.calculateScore(committedSchedule, personList)
+
+    override protected[search] def scoredPersons: List[Person] = personList
+
+    override protected[domain] def isSeparableByWeek: Boolean = true
+
+    override protected[domain] def dependsOnPersons: Boolean = true
+
+    override protected[search] def isRegularScore: Boolean = true
+
+    override protected[search] def score(schedule: CompactSchedule): Int = schedule.score
+
+    override protected[search] def upperBound(committedSchedule: CompactSchedule): Int = committedSchedule.score
+
+  // The standard deviation is never negative, so the regular score bounds the balanced one
+  case class BalancedPersonCosts(personList: List[Person]) extends CostFunction:
+    override def apply(schedule: Schedule): Int = Schedule.calculateScoreBalanced(schedule, personList)
+
+    override def upperBound(committedSchedule: Schedule): Int =
+      Schedule.calculateScore(committedSchedule, personList)
+
+    override protected[search] def scoredPersons: List[Person] = personList
+
+    // The standard deviation is taken over the workloads of all weeks together
+    override protected[domain] def isSeparableByWeek: Boolean = false
+
+    override protected[domain] def dependsOnPersons: Boolean = true
+
+    override protected[search] def isRegularScore: Boolean = false
+
+    override protected[search] def score(schedule: CompactSchedule): Int = schedule.scoreBalanced
+
+    override protected[search] def upperBound(committedSchedule: CompactSchedule): Int = committedSchedule.score
+
+  case class MaxTasks(maxTasksPerWeek: Int) extends CostFunction:
+    override def apply(schedule: Schedule): Int = Schedule.calculateScoreMaxTasks(schedule, maxTasksPerWeek)
+
+    override def upperBound(committedSchedule: Schedule): Int =
+      Schedule.calculateScoreMaxTasks(committedSchedule, maxTasksPerWeek)
+
+    override protected[search] def scoredPersons: List[Person] = List()
+
+    override protected[domain] def isSeparableByWeek: Boolean = true
+
+    // Only the number of tasks per week counts
+    override protected[domain] def dependsOnPersons: Boolean = false
+
+    override protected[search] def isRegularScore: Boolean = false
+
+    override protected[search] def score(schedule: CompactSchedule): Int = schedule.scoreMaxTasks(maxTasksPerWeek)
+
+    override protected[search] def upperBound(committedSchedule: CompactSchedule): Int =
+      committedSchedule.scoreMaxTasks(maxTasksPerWeek)
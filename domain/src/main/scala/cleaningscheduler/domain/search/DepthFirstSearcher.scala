@@ -0,0 +1,28 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.Schedule
+
+// Walks the option space depth-first without building a Tree[Schedule] first.
+// Every level holds the options for one decision, each visited schedule is only
+// kept on the stack while its subtree is searched, so memory grows with the
+// number of levels instead of with the number of leaves.
+object DepthFirstSearcher:
+  protected[domain] def searchBestSchedule[A](levels: List[List[A]],
+                                              schedule: Schedule,
+                                              applyOption: (Schedule, A) => Schedule,
+                                              costFunction: Schedule => Int
+                                             ): (Schedule, Int) =
+    def searchHelper(remaining: List[List[A]],
+                     currentSchedule: Schedule,
+                     acc: (Schedule, Int)
+                    ): (Schedule, Int) =
+      val score = costFunction(currentSchedule)
+      val newAcc = if (score > acc._2) (currentSchedule, score) else acc
+      remaining match
+        case Nil => newAcc
+        case options :: rest =>
+          options.foldLeft(newAcc) { (currentBest, option) =>
+            searchHelper(rest, applyOption(currentSchedule, option), currentBest)
+          }
+
+    searchHelper(levels, schedule, (null.asInstanceOf[Schedule], Int.MinValue))
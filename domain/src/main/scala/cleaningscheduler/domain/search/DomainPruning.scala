@@ -0,0 +1,33 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Task, Week}
+
+// Narrows the persons offered for a task in a week before the options are built. The
+// persons are ranked by the score of the week if the task were their only one. All
+// persons that can fit the task in their availability are kept, together with the
+// `slack` best ranked persons that can't, so a week in which nobody has time still
+// gets options. A slack of at least the number of persons removes nobody and only
+// orders them, which keeps the search exact.
+case class DomainPruning(slack: Int):
+  require(slack >= 0, "slack should not be negative")
+
+  protected[search] def candidates(task: Task, weekNumber: Int, personList: List[Person]): List[Person] =
+    if task.isPreferredFixed then List(task.preferredAssignee)
+    else
+      val ranked = personList.sortBy(person => -DomainPruning.expectedScore(task, weekNumber, person))
+      val fitting = ranked.takeWhile(person => DomainPruning.expectedScore(task, weekNumber, person) >= 0)
+      fitting ++ ranked.drop(fitting.length).take(slack)
+
+  // Puts the options with the best expected score first, so good schedules are found early
+  protected[search] def orderByExpectedScore(task: Task,
+                                             options: List[List[(Int, Person)]]
+                                            ): List[List[(Int, Person)]] =
+    options.sortBy(weekOption => -weekOption.map((weekNumber, person) =>
+      DomainPruning.expectedScore(task, weekNumber, person)).sum)
+
+object DomainPruning:
+  val exact: DomainPruning = DomainPruning(Int.MaxValue)
+  val quick: DomainPruning = DomainPruning(1)
+
+  private def expectedScore(task: Task, weekNumber: Int, person: Person): Int =
+    Week.personScore(person.availabilityAssignment.getOrElse(weekNumber, 0), task.costs)
@@ -0,0 +1,59 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Task}
+
+// Assigns the tasks of one week to persons with a min-cost flow in units of task costs.
+// What a person loses in a week is convex in the costs they get: every unit up to their
+// availability costs one point, and the k-th block of overloadStep units after that
+// costs (2k - 1) * overloadStep points. That is the quadratic penalty of Week.personScore
+// at the end of every block and a straight line in between. The flow may split a task
+// between persons, so every task goes to the person that got most of it.
+object FlowAssignment:
+  protected[domain] def assignWeek(weekNumber: Int,
+                                   tasks: List[Task],
+                                   personList: List[Person],
+                                   overloadStep: Int
+                                  ): Map[Task, Person] =
+    require(overloadStep > 0, "overloadStep should be at least 1")
+
+    val persons = personList.distinct.toArray
+    val (fixedTasks, freeTasks) = tasks.partition(task => task.isPreferredFixed || persons.isEmpty)
+    val freeTaskArray = freeTasks.toArray
+    val fixedCosts = fixedTasks.groupMapReduce(_.preferredAssignee)(_.costs)(_ + _)
+    val demand = freeTasks.map(_.costs.toLong).sum
+
+    val source = 0
+    val sink = 1
+    def taskNode(task: Int): Int = 2 + task
+    def personNode(person: Int): Int = 2 + freeTaskArray.length + person
+
+    val flow = new MinCostFlow(2 + freeTaskArray.length + persons.length)
+    val taskEdges = freeTaskArray.indices.map { task =>
+      flow.addEdge(source, taskNode(task), freeTaskArray(task).costs, 0)
+      persons.indices.map(person => flow.addEdge(taskNode(task), personNode(person), freeTaskArray(task).costs, 0))
+    }
+    persons.indices.foreach { person =>
+      val weight = personList.count(_ == persons(person)).toLong
+      val availability = persons(person).availabilityAssignment.getOrElse(weekNumber, 0)
+      val preload = fixedCosts.getOrElse(persons(person), 0)
+      val available = Math.max(0, availability - preload)
+      val overload = Math.max(0, preload - availability)
+      if available > 0 then flow.addEdge(personNode(person), sink, available, weight)
+
+      var block = overload / overloadStep + 1
+      var capacity = (overloadStep - overload % overloadStep).toLong
+      var added = 0L
+      while added < demand do
+        flow.addEdge(personNode(person), sink, capacity, (2L * block - 1) * overloadStep * weight)
+        added += capacity
+        block += 1
+        capacity = overloadStep
+    }
+    flow.run(source, sink, demand)
+
+    val freeAssignment = freeTaskArray.indices.map { task =>
+      val candidates = persons.indices.sortBy(person => persons(person) != freeTaskArray(task).preferredAssignee)
+      val person = candidates.maxBy(person => flow.flowOn(taskEdges(task)(person)))
+      (freeTaskArray(task), persons(person))
+    }
+    fixedTasks.map(task => (task, task.preferredAssignee)).toMap ++ freeAssignment
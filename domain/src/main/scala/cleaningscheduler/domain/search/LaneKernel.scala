@@ -0,0 +1,42 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.Week
+
+import java.util.{ServiceConfigurationError, ServiceLoader}
+import scala.jdk.OptionConverters.*
+
+// The loops of BatchScorer over the lanes of a batch, one lane per candidate schedule.
+// They are kept apart so the vectorscoring module can implement them with the Vector
+// API, which needs the jdk.incubator.vector module this build doesn't compile against.
+trait LaneKernel:
+  // loads(lane) += costs for every lane below laneCount where column(lane) is person
+  def addLoads(column: Array[Int], person: Int, costs: Int, loads: Array[Int], laneCount: Int): Unit
+
+  // scores(lane) += weight * Week.personScore(availability, loads(lane)) for every lane below laneCount
+  def addPersonScores(loads: Array[Int], availability: Int, weight: Int, scores: Array[Int], laneCount: Int): Unit
+
+object ScalarLaneKernel extends LaneKernel:
+  override def addLoads(column: Array[Int], person: Int, costs: Int, loads: Array[Int], laneCount: Int): Unit =
+    var lane = 0
+    while lane < laneCount do
+      if column(lane) == person then loads(lane) += costs
+      lane += 1
+
+  override def addPersonScores(loads: Array[Int], availability: Int, weight: Int, scores: Array[Int],
+                               laneCount: Int): Unit =
+    var lane = 0
+    while lane < laneCount do
+      scores(lane) += weight * Week.personScore(availability, loads(lane))
+      lane += 1
+
+object LaneKernel:
+  private val vectorModule = "jdk.incubator.vector"
+
+  // The kernel of the vectorscoring jar, when it is on the class path and the JVM was
+  // started with --add-modules jdk.incubator.vector. Without it the searchers score
+  // every leaf on its own, as a batch scored lane by lane isn't faster than that.
+  lazy val vectorized: Option[LaneKernel] =
+    if !ModuleLayer.boot().findModule(vectorModule).isPresent then None
+    else
+      try ServiceLoader.load(classOf[LaneKernel]).findFirst().toScala
+      catch case _: (ServiceConfigurationError | LinkageError) => None
@@ -0,0 +1,70 @@
+package cleaningscheduler.domain.search
+
+import scala.collection.mutable
+
+// Successive shortest paths on a small graph with integer capacities and costs. The
+// paths are found with a queue based Bellman-Ford, so the negative costs of residual
+// edges are fine as long as the graph has no negative cycles to begin with.
+class MinCostFlow(nodeCount: Int):
+  private val edgeTargets = mutable.ArrayBuffer[Int]()
+  private val capacities = mutable.ArrayBuffer[Long]()
+  private val costs = mutable.ArrayBuffer[Long]()
+  private val adjacency = Array.fill(nodeCount)(mutable.ArrayBuffer[Int]())
+
+  // Returns the index of the new edge, its residual edge gets the next index
+  def addEdge(from: Int, to: Int, capacity: Long, cost: Long): Int =
+    val edge = edgeTargets.length
+    edgeTargets += to
+    capacities += capacity
+    costs += cost
+    adjacency(from) += edge
+    edgeTargets += from
+    capacities += 0
+    costs += -cost
+    adjacency(to) += edge + 1
+    edge
+
+  def flowOn(edge: Int): Long = capacities(edge ^ 1)
+
+  // Sends at most maxFlow from source to sink at the lowest cost and returns the flow sent
+  def run(source: Int, sink: Int, maxFlow: Long): Long =
+    var flow = 0L
+    var hasPath = true
+    while flow < maxFlow && hasPath do
+      val previousEdges = shortestPaths(source)
+      if previousEdges(sink) == -1 then hasPath = false
+      else
+        var bottleneck = maxFlow - flow
+        var node = sink
+        while node != source do
+          bottleneck = Math.min(bottleneck, capacities(previousEdges(node)))
+          node = edgeTargets(previousEdges(node) ^ 1)
+        node = sink
+        while node != source do
+          capacities(previousEdges(node)) -= bottleneck
+          capacities(previousEdges(node) ^ 1) += bottleneck
+          node = edgeTargets(previousEdges(node) ^ 1)
+        flow += bottleneck
+    flow
+
+  // The edge each node is reached by on its cheapest path from source, or -1
+  private def shortestPaths(source: Int): Array[Int] =
+    val distances = Array.fill(nodeCount)(Long.MaxValue)
+    val previousEdges = Array.fill(nodeCount)(-1)
+    val isQueued = new Array[Boolean](nodeCount)
+    val queue = mutable.Queue(source)
+    distances(source) = 0
+    isQueued(source) = true
+    while queue.nonEmpty do
+      val node = queue.dequeue()
+      isQueued(node) = false
+      adjacency(node).foreach { edge =>
+        val target = edgeTargets(edge)
+        if capacities(edge) > 0 && distances(node) + costs(edge) < distances(target) then
+          distances(target) = distances(node) + costs(edge)
+          previousEdges(target) = edge
+          if !isQueued(target) then
+            isQueued(target) = true
+            queue.enqueue(target)
+      }
+    previousEdges
@@ -0,0 +1,70 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.Schedule
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{ForkJoinPool, ForkJoinTask, RecursiveTask}
+import scala.concurrent.duration.Deadline
+import scala.jdk.CollectionConverters.*
+
+// Splits the first levels of the option space into fork/join tasks. A task above the
+// split searches its own node and forks a task for every child, below the split a task
+// searches its whole subtree. The results are merged in depth-first order, the node
+// before its children, so the workers return the same schedule as the sequential
+// search no matter which of them finishes first. Every task only holds the option
+// indices leading to its node and builds its own compact schedules. The pool belongs
+// to the scheduler, so concurrent searches share its workers.
+object ParallelBranchAndBoundSearcher:
+  private val tasksPerWorker = 4
+
+  private class SubtreeSearch(problem: CompiledProblem,
+                              prefix: List[Int],
+                              splitDepth: Int,
+                              costFunction: CostFunction,
+                              sharedBestScore: AtomicInteger,
+                              deadline: Option[Deadline],
+                              incumbentScore: Option[Int]
+                             ) extends RecursiveTask[SearchResult]:
+    override def compute(): SearchResult =
+      if prefix.length < splitDepth then
+        val nodeResult = BranchAndBoundSearcher.searchSubtree(problem, prefix, false, costFunction,
+          Some(sharedBestScore), deadline, incumbentScore)
+        val children = problem.levels(prefix.length).indices.toList.map { index =>
+          new SubtreeSearch(problem, prefix :+ index, splitDepth, costFunction, sharedBestScore, deadline,
+            incumbentScore)
+        }
+        ForkJoinTask.invokeAll(children.asJava)
+        children.map(_.join()).foldLeft(nodeResult)(merge)
+      else
+        BranchAndBoundSearcher.searchSubtree(problem, prefix, true, costFunction, Some(sharedBestScore), deadline,
+          incumbentScore)
+
+  protected[domain] def searchBestSchedule(problem: CompiledProblem,
+                                           costFunction: CostFunction,
+                                           pool: ForkJoinPool,
+                                           deadline: Option[Deadline] = None,
+                                           incumbent: Option[Schedule] = None
+                                          ): SearchResult =
+    val splitDepth = chooseSplitDepth(problem.levels, pool.getParallelism * tasksPerWorker)
+
+    // Only subtrees that can't reach the incumbent are cut, like in the sequential search
+    val incumbentScore = incumbent.map(costFunction)
+    val sharedBestScore = new AtomicInteger(incumbentScore.getOrElse(Int.MinValue))
+    val result = pool.invoke(new SubtreeSearch(problem, List(), splitDepth, costFunction, sharedBestScore, deadline,
+      incumbentScore))
+    BranchAndBoundSearcher.orIncumbent(result, incumbent, incumbentScore)
+
+  // A later result only wins with a higher score, so ties go to the earlier subtree
+  private def merge(earlier: SearchResult, later: SearchResult): SearchResult =
+    val counted = earlier.copy(visitedNodes = earlier.visitedNodes + later.visitedNodes,
+      prunedNodes = earlier.prunedNodes + later.prunedNodes, isComplete = earlier.isComplete && later.isComplete)
+    if later.score > earlier.score then counted.copy(schedule = later.schedule, score = later.score)
+    else counted
+
+  // The smallest number of levels that gives every worker a few subtrees to pick from
+  private def chooseSplitDepth(levels: Array[Array[CompiledOption]], targetTasks: Int): Int =
+    val subtreesPerDepth = levels.toList.scanLeft(1L) { (subtrees, options) =>
+      (subtrees * options.length).min(Int.MaxValue.toLong)
+    }
+    val depth = subtreesPerDepth.indexWhere(_ >= targetTasks)
+    if depth == -1 then levels.length else depth
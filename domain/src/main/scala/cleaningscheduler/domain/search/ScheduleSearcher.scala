@@ -2,6 +2,8 @@ package cleaningscheduler.domain.search
 
 import cleaningscheduler.domain.{Person, Schedule, Task}
 
+import java.util.concurrent.ForkJoinPool
+import scala.concurrent.duration.Deadline
 import scala.util.chaining.scalaUtilChainingOps
 import scala.language.postfixOps
 
@@ -14,37 +16,16 @@ object ScheduleSearcher:
                                                     scheduleLength: Int,
                                                     isIntervalVariable: Boolean = true
                                                    ): Seq[Seq[Int]] =
-    def generateSequences(currentWeek: Int, sequence: Seq[Int]): Seq[Seq[Int]] =
-      val sequences = Seq(sequence)
-
-      val repeatRange = if isIntervalVariable
-      then task.minRepeatInterval to task.maxRepeatInterval else task.minRepeatInterval to task.minRepeatInterval
-
-      val nextSteps = repeatRange
-        .map(currentWeek + _)
-        .filter(weekNumber => weekNumber < startWeek + scheduleLength + task.minRepeatInterval)
-
-      if nextSteps.isEmpty then sequences
-      else nextSteps.flatMap(next => generateSequences(next, sequence :+ next))
-
-    if (task.isRepeated && task.lastDoneAt + task.maxRepeatInterval < startWeek
-      || task.lastDoneAt + task.minRepeatInterval > startWeek + scheduleLength) {
-      generateSequences(startWeek, Seq(startWeek))
-        .map(sequence => sequence.filter(weekNumber => weekNumber < startWeek + scheduleLength))
-        .distinct
-    } else if (task.isRepeated) {
-      val possibleStarts = ((task.lastDoneAt + task.minRepeatInterval) to (task.lastDoneAt + task.maxRepeatInterval))
-        .filter(weekNumber => weekNumber >= startWeek && weekNumber < startWeek + scheduleLength)
-        .distinct
-      possibleStarts.flatMap(start => generateSequences(start, Seq(start))
-        .map(sequence => sequence.filter(weekNumber => weekNumber < startWeek + scheduleLength))
-        .distinct
-      )
-    } else {
+    val startsAtBeginning = task.isRepeated && task.lastDoneAt + task.maxRepeatInterval < startWeek ||
+      task.lastDoneAt + task.minRepeatInterval > startWeek + scheduleLength
+
+    if startsAtBeginning || task.isRepeated then
+      WeekSequenceGenerator.repeatedSequences(startsAtBeginning, task.lastDoneAt, task.minRepeatInterval,
+        task.maxRepeatInterval, startWeek, scheduleLength, isIntervalVariable)
+    else
       (startWeek to startWeek + task.maxRepeatInterval)
         .filter(week => week < startWeek + scheduleLength)
         .map(week => Seq(week))
-    }
 
   private def pickSample[A](list: List[A], sampleSize: Int): List[A] =
     if (list.length > sampleSize)
@@ -53,57 +34,64 @@ object ScheduleSearcher:
     else
       list
 
+  // sampleSize different combinations of the week sequences of a task, drawn by their index
+  // in the products so the products themselves are never built
+  private def sampleCombinations[A](sequenceLevels: List[IndexedSeq[IndexedSeq[A]]],
+                                    sampleSize: Int
+                                   ): List[List[A]] =
+    val starts = sequenceLevels.map(CombinationEnumerator.size).scanLeft(0L)((start, size) => Math.addExact(start, size)).toVector
+    val total = starts.last
+    if total <= sampleSize then sequenceLevels.flatMap(levels => new CombinationEnumerator(levels).toList)
+    else
+      val levelsBySequence = sequenceLevels.toVector
+      Iterator.continually(scala.util.Random.nextLong(total)).distinct.take(sampleSize).toList.map { index =>
+        val sequence = starts.lastIndexWhere(_ <= index)
+        CombinationEnumerator.combinationAt(levelsBySequence(sequence), index - starts(sequence))
+      }
+
   protected[domain] def getOptionsList(taskList: List[Task],
                                        personList: List[Person],
                                        startWeek: Int,
                                        scheduleLength: Int,
                                        quickVersion: Boolean = true,
-                                       isIntervalVariable: Boolean = true
+                                       isIntervalVariable: Boolean = true,
+                                       domainPruning: Option[DomainPruning] = None
                                       ): List[ScheduleOption] =
     taskList.map { task =>
       (task,
         listOfRelevantWeekSequences(task, startWeek, scheduleLength, isIntervalVariable).toList
-          .flatMap { weekList =>
+          .map { weekList =>
             val validPersons =
               if task.isPreferredFixed then List(task.preferredAssignee)
               else if !isIntervalVariable && !quickVersion then personList
               else if quickVersion then pickSample(personList, 1)
               else personList
             val combinations = weekList.map { week =>
-              validPersons.map(person => (week, person))
+              val weekPersons = domainPruning match
+                case Some(pruning) =>
+                  val candidates = pruning.candidates(task, week, personList)
+                  if quickVersion then pickSample(candidates, 1) else candidates
+                case None => validPersons
+              weekPersons.map(person => (week, person))
             }
 
-            combinations.foldLeft(List(List.empty[(Int, Person)])) {
-              (acc, weekCombinations) =>
-                for {
-                  seq <- acc
-                  combo <- weekCombinations
-                } yield seq :+ combo
-            }
+            combinations.map(_.toVector).toVector
           }
-          .pipe(list => if quickVersion then pickSample[List[(Int, Person)]](list, 50) else list)
+          .pipe(sequenceLevels =>
+            if quickVersion then sampleCombinations(sequenceLevels, 50)
+            else sequenceLevels.flatMap(levels => new CombinationEnumerator(levels).toList))
+          .pipe(list => domainPruning.fold(list)(_.orderByExpectedScore(task, list)))
       )
     }
 
   protected[domain] def getAllCombinedOptions(optionsList: List[ScheduleOption]): List[List[OptionTreeNodeValue]] =
-    def cartesianProduct[A, B](listA: List[A], listB: List[B]): List[(A, B)] = {
-      for {
-        a <- listA
-        b <- listB
-      } yield (a, b)
-    }
-
-    optionsList.foldLeft(List(List.empty[(Task, List[(Int, Person)])])) {
-      (acc, tuple: ScheduleOption) =>
-        val task = tuple._1
-        val options = tuple._2
-        val taskCombinations = options.map(option => (task, option))
+    combinedOptions(optionsList).toList
 
-        cartesianProduct(acc, taskCombinations)
-          .map { (accOption, taskOption) =>
-            accOption :+ taskOption
-          }
-    }
+  // The combinations one at a time, see CombinationEnumerator
+  protected[domain] def combinedOptions(optionsList: List[ScheduleOption]): CombinationEnumerator[OptionTreeNodeValue] =
+    new CombinationEnumerator(optionsList.map { (task, options) =>
+      options.map(option => (task, option)).toVector
+    }.toVector)
 
   protected[domain] def buildOptionTree(optionsList: List[ScheduleOption]): Tree[OptionTreeNodeValue] =
     def buildTreeHelper(remaining: List[ScheduleOption]): List[Tree[OptionTreeNodeValue]] =
@@ -147,4 +135,47 @@ object ScheduleSearcher:
           }
 
     val best = searchBestScheduleHelper(searchTree, (null.asInstanceOf[Schedule], Int.MinValue))
-    best
\ No newline at end of file
+    best
+
+  protected[domain] def searchBestScheduleLazily(optionsList: List[ScheduleOption],
+                                                 schedule: Schedule,
+                                                 costFunction: Schedule => Int
+                                                ): (Schedule, Int) =
+    DepthFirstSearcher.searchBestSchedule(optionLevels(optionsList), schedule, applyOption, costFunction)
+
+  protected[domain] def searchBestScheduleBranchAndBound(optionsList: List[ScheduleOption],
+                                                         schedule: Schedule,
+                                                         costFunction: CostFunction,
+                                                         deadline: Option[Deadline] = None,
+                                                         incumbent: Option[Schedule] = None
+                                                        ): SearchResult =
+    BranchAndBoundSearcher.searchBestSchedule(compileProblem(optionsList, schedule, costFunction),
+      costFunction, deadline, incumbent)
+
+  protected[domain] def searchBestScheduleInParallel(optionsList: List[ScheduleOption],
+                                                     schedule: Schedule,
+                                                     costFunction: CostFunction,
+                                                     pool: ForkJoinPool,
+                                                     deadline: Option[Deadline] = None,
+                                                     incumbent: Option[Schedule] = None
+                                                    ): SearchResult =
+    ParallelBranchAndBoundSearcher.searchBestSchedule(compileProblem(optionsList, schedule, costFunction),
+      costFunction, pool, deadline, incumbent)
+
+  private def compileProblem(optionsList: List[ScheduleOption],
+                             schedule: Schedule,
+                             costFunction: CostFunction
+                            ): CompiledProblem =
+    CompiledProblem.compile(schedule, withoutSearchedTasks(optionsList, schedule), costFunction.scoredPersons,
+      optionLevels(optionsList), true, costFunction.dependsOnPersons)
+
+  private def optionLevels(optionsList: List[ScheduleOption]): List[List[OptionTreeNodeValue]] =
+    optionsList.map((task, options) => options.map(option => (task, option)))
+
+  private def withoutSearchedTasks(optionsList: List[ScheduleOption], schedule: Schedule): Schedule =
+    optionsList.foldLeft(schedule) { (currentSchedule, option) =>
+      Schedule.reassignTask(currentSchedule, option._1, List())
+    }
+
+  private def applyOption(schedule: Schedule, option: OptionTreeNodeValue): Schedule =
+    Schedule.reassignTask(schedule, option._1, option._2)
@@ -3,6 +3,7 @@ package cleaningscheduler.domain.search
 import cleaningscheduler.domain.{Person, Schedule, Task}
 
 import scala.collection.mutable.ListBuffer
+import scala.concurrent.duration.Deadline
 import scala.language.postfixOps
 
 object ScheduleSearcherOnlyPersonVariable:
@@ -12,12 +13,14 @@ object ScheduleSearcherOnlyPersonVariable:
   protected[domain] def getOptionsList(taskList: List[Task],
                                        personList: List[Person],
                                        startWeek: Int,
-                                       scheduleLength: Int): List[ScheduleOption] =
+                                       scheduleLength: Int,
+                                       domainPruning: Option[DomainPruning] = None): List[ScheduleOption] =
     val listBuffer = new ListBuffer[(Task, Int, List[Person])]
     taskList.foreach(task =>
       val relevantWeeks = Schedule.relevantWeeks(task, startWeek, scheduleLength)
       val personListForTask = if (task.isPreferredFixed) List(task.preferredAssignee) else personList
-      relevantWeeks.foreach(weekNumber => listBuffer.addOne(task, weekNumber, personListForTask))
+      relevantWeeks.foreach(weekNumber => listBuffer.addOne(task, weekNumber,
+        domainPruning.fold(personListForTask)(_.candidates(task, weekNumber, personList))))
     )
     listBuffer.toList
 
@@ -48,4 +51,37 @@ object ScheduleSearcherOnlyPersonVariable:
             Node(updatedSchedule, buildScheduleTreeHelper(childNode, updatedSchedule))
           )
 
-    Node(schedule, buildScheduleTreeHelper(optionsTree, schedule))
\ No newline at end of file
+    Node(schedule, buildScheduleTreeHelper(optionsTree, schedule))
+
+  protected[domain] def searchBestScheduleLazily(optionsList: List[ScheduleOption],
+                                                 schedule: Schedule,
+                                                 costFunction: Schedule => Int
+                                                ): (Schedule, Int) =
+    DepthFirstSearcher.searchBestSchedule(optionLevels(optionsList), schedule, applyOption, costFunction)
+
+  protected[domain] def searchBestScheduleBranchAndBound(optionsList: List[ScheduleOption],
+                                                         schedule: Schedule,
+                                                         costFunction: CostFunction,
+                                                         deadline: Option[Deadline] = None
+                                                        ): SearchResult =
+    BranchAndBoundSearcher.searchBestSchedule(compileProblem(optionsList, schedule, costFunction),
+      costFunction, deadline)
+
+  private def compileProblem(optionsList: List[ScheduleOption],
+                             schedule: Schedule,
+                             costFunction: CostFunction
+                            ): CompiledProblem =
+    val levels = optionsList.map((task, weekNumber, persons) => persons.map(person => (task, List((weekNumber, person)))))
+    CompiledProblem.compile(schedule, withoutSearchedTasks(optionsList, schedule), costFunction.scoredPersons,
+      levels, false, costFunction.dependsOnPersons)
+
+  private def optionLevels(optionsList: List[ScheduleOption]): List[List[OptionTreeNodeValue]] =
+    optionsList.map((task, weekNumber, persons) => persons.map(person => (task, weekNumber, person)))
+
+  private def withoutSearchedTasks(optionsList: List[ScheduleOption], schedule: Schedule): Schedule =
+    optionsList.foldLeft(schedule) { (currentSchedule, option) =>
+      Schedule.removeTaskFromWeek(currentSchedule, option._2, option._1)
+    }
+
+  private def applyOption(schedule: Schedule, option: OptionTreeNodeValue): Schedule =
+    Schedule.changeWeek(schedule, option._2, option._1, option._3)
@@ -0,0 +1,13 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.Schedule
+
+// prunedNodes counts the subtrees that were cut, each by its root node. isComplete is
+// false when a deadline stopped the search, the schedule is then the best one found
+// so far.
+case class SearchResult(schedule: Schedule,
+                        score: Int,
+                        visitedNodes: Long,
+                        prunedNodes: Long,
+                        isComplete: Boolean = true
+                       )
@@ -0,0 +1,124 @@
+package cleaningscheduler.domain.search
+
+// Interchangeable persons and tasks make the search visit every permutation of them,
+// all with the same score. Both are found when the problem is compiled, and the search
+// then skips an option when swapping two interchangeable persons or tasks would give a
+// sequence of option indices that is lexicographically smaller:
+// - persons are interchangeable when they have the same availability in every week, are
+//   counted equally often in the score, and are neither in the schedule the search starts
+//   from nor a preferred assignee, so they only show up through options. Only swaps that
+//   map the options of every level onto options of that level are used.
+// - a level is the twin of an earlier one when its task has the same costs and the same
+//   options, so it may not pick an option before the one the earlier level picked.
+// Every check compares against the same order, so the smallest sequence of every set of
+// swapped ones passes all of them, and the best score is still found.
+class SymmetryBreaking(val twinLevels: Array[Int],
+                       val optionImages: Array[Array[Array[Int]]],
+                       val swapCount: Int
+                      )
+
+object SymmetryBreaking:
+  private type OptionKey = (Int, List[Int], List[Int])
+
+  protected[search] def detect(problem: CompiledProblem): SymmetryBreaking =
+    val levels = problem.levels
+    // the first index wins when a level lists the same option twice
+    val optionIndices: Array[Map[OptionKey, Int]] = levels.map { options =>
+      options.indices.reverse.map(index => (optionKey(options(index)), index)).toMap
+    }
+
+    val twinLevels = levels.indices.map { level =>
+      levels.indices.lastIndexWhere(earlier => isTwin(problem, earlier, level), level - 1)
+    }.toArray
+
+    val swaps = interchangeablePersons(problem).flatMap(members => members.zip(members.tail))
+    val swapImages = swaps.flatMap { (first, second) =>
+      val images = levels.indices.map { level =>
+        levels(level).map(option => optionIndices(level).get(optionKey(swapPersons(option, first, second))))
+      }
+      if images.forall(_.forall(_.isDefined)) then Some(images.map(_.map(_.get).toArray).toArray)
+      else None
+    }
+    val optionImages = levels.indices.map(level => swapImages.map(images => images(level)).toArray).toArray
+
+    new SymmetryBreaking(twinLevels, optionImages, swapImages.length)
+
+  private def isTwin(problem: CompiledProblem, earlier: Int, level: Int): Boolean =
+    val earlierOptions = problem.levels(earlier)
+    val options = problem.levels(level)
+    earlierOptions.nonEmpty && earlierOptions.length == options.length &&
+      problem.costs(earlierOptions.head.task) == problem.costs(options.head.task) &&
+      earlierOptions.head.task != options.head.task &&
+      options.indices.forall { index =>
+        earlierOptions(index).replacesTask == options(index).replacesTask &&
+          earlierOptions(index).weeks.sameElements(options(index).weeks) &&
+          earlierOptions(index).persons.sameElements(options(index).persons)
+      }
+
+  // Classes of at least two persons, every class sorted by person index
+  private def interchangeablePersons(problem: CompiledProblem): List[List[Int]] =
+    val scheduledPersons = (problem.initialAssignment ++ problem.committedAssignment).flatten.toSet
+    val preferredPersons = problem.tasks.map(_.preferredAssignee).toSet
+    problem.persons.indices
+      .filter(person => problem.scoreWeights(person) > 0 && !scheduledPersons.contains(person) &&
+        !preferredPersons.contains(problem.persons(person)))
+      .groupBy(person => (problem.availability(person).toList, problem.scoreWeights(person)))
+      .values
+      .filter(_.length > 1)
+      .map(_.sorted.toList)
+      .toList
+      .sortBy(_.head)
+
+  private def swapPersons(option: CompiledOption, first: Int, second: Int): CompiledOption =
+    option.copy(persons = option.persons.map { person =>
+      if person == first then second else if person == second then first else person
+    })
+
+  private def optionKey(option: CompiledOption): OptionKey =
+    (option.task, option.weeks.toList, option.persons.toList)
+
+// The search state of the symmetry checks along the current path. Row depth of
+// undecided holds the swaps whose image of the path so far is still equal to it,
+// a swap that gave a larger image no longer needs to be checked below that node.
+class SymmetryState(symmetry: SymmetryBreaking, levelCount: Int):
+  private val chosenOptions = new Array[Int](levelCount)
+  private val undecided = Array.fill(levelCount + 1, symmetry.swapCount)(true)
+
+  def firstOption(depth: Int): Int =
+    val twin = symmetry.twinLevels(depth)
+    if twin >= 0 then chosenOptions(twin) else 0
+
+  // Records the option at depth, or returns false when a swap makes the path smaller
+  def tryChoose(depth: Int, index: Int): Boolean =
+    if index < firstOption(depth) then false
+    else
+      val before = undecided(depth)
+      val after = undecided(depth + 1)
+      val images = symmetry.optionImages(depth)
+      var isCanonical = true
+      var swap = 0
+      while swap < symmetry.swapCount && isCanonical do
+        if before(swap) then
+          val image = images(swap)(index)
+          if image < index then isCanonical = false
+          else after(swap) = image == index
+        else after(swap) = false
+        swap += 1
+      if isCanonical then chosenOptions(depth) = index
+      isCanonical
+
+  // What the checks below depth take from the path so far: the swaps that are still
+  // undecided and the options of earlier levels that later levels are twins of
+  def pathKey(depth: Int): Long =
+    var key = 0L
+    val stillUndecided = undecided(depth)
+    var swap = 0
+    while swap < symmetry.swapCount do
+      if stillUndecided(swap) then key = TranspositionTable.mix(key + swap)
+      swap += 1
+    var level = depth
+    while level < levelCount do
+      val twin = symmetry.twinLevels(level)
+      if twin >= 0 && twin < depth then key = TranspositionTable.mix(key ^ (level.toLong << 32 | chosenOptions(twin)))
+      level += 1
+    key
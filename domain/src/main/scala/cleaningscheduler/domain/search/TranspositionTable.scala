@@ -0,0 +1,52 @@
+package cleaningscheduler.domain.search
+
+// The keys of the nodes a search has visited, so a node that is reached again along
+// another path is skipped. Below a node the scores only depend on the costs per scored
+// person and week and the number of tasks per week, see CompactSchedule.stateKey, so
+// two paths that give equal costs, like two tasks of the same costs handed to two
+// persons the other way round, have subtrees with the same scores. The first one was
+// searched with a bound that was at most the current one, so the second can't find a
+// better score, and skipping it keeps the result of the search the same.
+// The table holds a fixed number of keys, a new key replaces the key in its slot.
+class TranspositionTable(capacity: Int):
+  require(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two")
+
+  private val keys = new Array[Long](capacity)
+  private val mask = capacity - 1
+
+  // Returns true when the key was recorded before, and records it otherwise
+  def visit(key: Long): Boolean =
+    val storedKey = if key == TranspositionTable.Empty then 1L else key
+    val slot = (storedKey ^ (storedKey >>> 32)).toInt & mask
+    if keys(slot) == storedKey then true
+    else
+      keys(slot) = storedKey
+      false
+
+  def clear(): Unit = java.util.Arrays.fill(keys, TranspositionTable.Empty)
+
+object TranspositionTable:
+  val defaultCapacity: Int = 1 << 14
+  private val Empty: Long = 0L
+
+  // The finalizer of SplitMix64, spreads every bit of x over the whole key
+  protected[search] def mix(x: Long): Long =
+    var z = x + 0x9E3779B97F4A7C15L
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL
+    z ^ (z >>> 31)
+
+  // The key of a node only covers the costs, so every level has to touch its own cells:
+  // a level that changes cells of an earlier level would undo costs the key can't see
+  protected[search] def isApplicable(problem: CompiledProblem): Boolean =
+    val touchedCells = problem.levels.map(_.flatMap { option =>
+      if option.replacesTask then Array((option.task, -1))
+      else option.weeks.map(week => (option.task, week))
+    }.distinct)
+    def overlaps(cell: (Int, Int), other: (Int, Int)): Boolean =
+      cell._1 == other._1 && (cell._2 == other._2 || cell._2 < 0 || other._2 < 0)
+    touchedCells.indices.forall { level =>
+      (level + 1 until touchedCells.length).forall { other =>
+        touchedCells(level).forall(cell => !touchedCells(other).exists(overlaps(cell, _)))
+      }
+    }
@@ -0,0 +1,80 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+
+import java.util.concurrent.{ForkJoinPool, RecursiveTask}
+import scala.concurrent.duration.Deadline
+
+// When every task can only be done in the weeks of the default schedule and the cost
+// function adds up a score per week, the best schedule is the best assignment of every
+// week on its own. Each week is then searched like ScheduleSearcherOnlyPersonVariable
+// does, on the fork/join pool of the scheduler, so the work grows with the schedule length instead of
+// with the product of all weeks.
+// The balanced score takes the standard deviation of the workloads over all weeks, so
+// it isn't separable, and neither are interval variable schedules or tasks that have
+// more than one week sequence. Those keep using the search over all options.
+object WeekDecomposition:
+  // The most person combinations a week is searched over when the schedule is only
+  // searched quickly, so a week with many tasks and persons doesn't search all of them
+  val quickWeekCombinations: Long = 100_000
+
+  private class WeekSearch(optionsList: List[(Task, Int, List[Person])],
+                           weekSchedule: Schedule,
+                           costFunction: CostFunction,
+                           deadline: Option[Deadline]
+                          ) extends RecursiveTask[SearchResult]:
+    override def compute(): SearchResult =
+      ScheduleSearcherOnlyPersonVariable.searchBestScheduleBranchAndBound(optionsList, weekSchedule,
+        costFunction, deadline)
+
+  // The search over all options also visits schedules in which a task is still with its
+  // preferred assignee, so that person has to be one of the options as well
+  protected[domain] def canDecompose(taskList: List[Task],
+                                     personList: List[Person],
+                                     startWeek: Int,
+                                     scheduleLength: Int,
+                                     isIntervalVariable: Boolean,
+                                     costFunction: CostFunction
+                                    ): Boolean =
+    !isIntervalVariable && costFunction.isSeparableByWeek && taskList.forall { task =>
+      val weekSequences = ScheduleSearcher.listOfRelevantWeekSequences(task, startWeek, scheduleLength, false)
+      weekSequences.length == 1 && weekSequences.head == Schedule.relevantWeeks(task, startWeek, scheduleLength) &&
+        (task.isPreferredFixed || personList.contains(task.preferredAssignee))
+    }
+
+  protected[domain] def searchByWeek(defaultSchedule: Schedule,
+                                     taskList: List[Task],
+                                     personList: List[Person],
+                                     costFunction: CostFunction,
+                                     domainPruning: DomainPruning,
+                                     pool: ForkJoinPool,
+                                     deadline: Option[Deadline] = None,
+                                     maxWeekCombinations: Long = Long.MaxValue
+                                    ): SearchResult =
+    require(maxWeekCombinations > 0, "maxWeekCombinations should be at least 1")
+
+    val weekSearches = defaultSchedule.weekList.map { week =>
+      val weekTasks = taskList.filter(week.taskAssignment.contains)
+      val candidates = capCandidates(
+        weekTasks.map(task => domainPruning.candidates(task, week.weekNumber, personList)), maxWeekCombinations)
+      val optionsList = weekTasks.zip(candidates).map((task, persons) => (task, week.weekNumber, persons))
+      new WeekSearch(optionsList, Schedule(defaultSchedule.createdAt, List(week)), costFunction, deadline)
+    }
+
+    val results = weekSearches.map(weekSearch => pool.submit(weekSearch)).map(_.join())
+    SearchResult(
+      Schedule(defaultSchedule.createdAt, results.flatMap(_.schedule.weekList)),
+      results.map(_.score).sum,
+      results.map(_.visitedNodes).sum,
+      results.map(_.prunedNodes).sum,
+      results.forall(_.isComplete)
+    )
+
+  // Drops the worst ranked candidate of the task with the most candidates until the
+  // product of the numbers of candidates is at most maxCombinations
+  protected[search] def capCandidates(candidates: List[List[Person]], maxCombinations: Long): List[List[Person]] =
+    val counts = candidates.map(_.length).toArray
+    def combinations: BigInt = counts.foldLeft(BigInt(1))(_ * _)
+    while combinations > maxCombinations && counts.exists(_ > 1) do
+      counts(counts.indexOf(counts.max)) -= 1
+    candidates.zip(counts).map((persons, count) => persons.take(count))
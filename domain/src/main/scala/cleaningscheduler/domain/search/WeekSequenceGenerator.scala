@@ -0,0 +1,71 @@
+package cleaningscheduler.domain.search
+
+import java.util
+import scala.collection.immutable.BitSet
+
+// Generates the repeated week sequences of ScheduleSearcher.listOfRelevantWeekSequences.
+// The sequences only depend on the repeat interval and on lastDoneAt and the schedule
+// length relative to startWeek, so they are generated as bitsets of week offsets and
+// kept in a small LRU cache that is shared between requests.
+// Every sequence is a path of steps between minRepeatInterval and maxRepeatInterval
+// that stays within the schedule. A path is emitted once all longer paths starting
+// with it are, and only when a next step would leave the schedule, which gives the
+// same sequences in the same order as the recursive version without any duplicates.
+object WeekSequenceGenerator:
+  private val cacheSize = 256
+
+  private case class SequenceKey(startsAtBeginning: Boolean,
+                                 lastDoneOffset: Int,
+                                 scheduleLength: Int,
+                                 minRepeatInterval: Int,
+                                 maxRepeatInterval: Int,
+                                 maxStep: Int
+                                )
+
+  private val cache = new util.LinkedHashMap[SequenceKey, Vector[BitSet]](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: util.Map.Entry[SequenceKey, Vector[BitSet]]): Boolean =
+      size() > cacheSize
+  }
+
+  protected[search] def repeatedSequences(startsAtBeginning: Boolean,
+                                          lastDoneAt: Int,
+                                          minRepeatInterval: Int,
+                                          maxRepeatInterval: Int,
+                                          startWeek: Int,
+                                          scheduleLength: Int,
+                                          isIntervalVariable: Boolean
+                                         ): Seq[Seq[Int]] =
+    val maxStep = if isIntervalVariable then maxRepeatInterval else minRepeatInterval
+    val lastDoneOffset = if startsAtBeginning then 0 else lastDoneAt - startWeek
+    val key = SequenceKey(startsAtBeginning, lastDoneOffset, scheduleLength, minRepeatInterval, maxRepeatInterval, maxStep)
+    val sequences = cache.synchronized {
+      Option(cache.get(key)).getOrElse {
+        val generated = generateSequences(key)
+        cache.put(key, generated)
+        generated
+      }
+    }
+    sequences.map(offsets => offsets.toSeq.map(startWeek + _))
+
+  private def generateSequences(key: SequenceKey): Vector[BitSet] =
+    val starts =
+      if key.startsAtBeginning then Vector(0)
+      else (key.lastDoneOffset + key.minRepeatInterval to key.lastDoneOffset + key.maxRepeatInterval)
+        .filter(offset => offset >= 0 && offset < key.scheduleLength)
+        .toVector
+    starts.flatMap(start => sequencesFrom(start, key.scheduleLength, key.minRepeatInterval, key.maxStep))
+
+  // Walks the paths depth-first with an explicit stack of (sequence, last week, next step)
+  private def sequencesFrom(start: Int, scheduleLength: Int, minStep: Int, maxStep: Int): Vector[BitSet] =
+    if start >= scheduleLength then Vector(BitSet.empty)
+    else
+      val result = Vector.newBuilder[BitSet]
+      var stack = List((BitSet(start), start, Math.max(1, minStep)))
+      while stack.nonEmpty do
+        val (sequence, last, step) = stack.head
+        if step <= maxStep && last + step < scheduleLength then
+          stack = (sequence + (last + step), last + step, Math.max(1, minStep)) :: (sequence, last, step + 1) :: stack.tail
+        else
+          stack = stack.tail
+          if last + maxStep >= scheduleLength then result += sequence
+      result.result()
@@ -0,0 +1,82 @@
+package cleaningscheduler.domain
+
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class IncrementalScoreTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 60, 31 -> 40, 32 -> 10))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 40, 32 -> 50))
+  val person3: Person = Person("PersonC", Map(31 -> 20))
+  val task1: Task = Task("task1", 30, person1, false, 25, true, 1, 1)
+  val task2: Task = Task("task2", 30, person2, false, 25, false, 0, 0)
+  val task3: Task = Task("task3", 20, person3, false, 25, true, 2, 2)
+  val personList: List[Person] = List(person1, person2, person3)
+
+  val schedule: Schedule = Schedule(DateTime.now(), List(
+    Week(30, Map(task1 -> person1, task2 -> person1, task3 -> person3)),
+    Week(31, Map(task1 -> person2)),
+    Week(32, Map(task1 -> person1, task3 -> person2))
+  ))
+
+  "IncrementalScore" when {
+    "created from a schedule" should {
+      "give the same scores as a full recount" in {
+        val incrementalScore = new IncrementalScore(schedule, personList, 2)
+
+        incrementalScore.score shouldBe Schedule.calculateScore(schedule, personList)
+        incrementalScore.scoreBalanced shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+        incrementalScore.scoreMaxTasks shouldBe Schedule.calculateScoreMaxTasks(schedule, 2)
+      }
+    }
+    "reassigning a task" should {
+      "return the change of every score without applying it" in {
+        val incrementalScore = new IncrementalScore(schedule, personList, 2)
+        val weekOption = List((30, person2), (31, person3), (32, person2))
+        val reassigned = Schedule.reassignTask(schedule, task1, weekOption)
+
+        val delta = incrementalScore.reassignTaskDelta(task1, weekOption)
+
+        delta.score shouldBe Schedule.calculateScore(reassigned, personList) -
+          Schedule.calculateScore(schedule, personList)
+        delta.scoreBalanced shouldBe Schedule.calculateScoreBalanced(reassigned, personList) -
+          Schedule.calculateScoreBalanced(schedule, personList)
+        delta.scoreMaxTasks shouldBe Schedule.calculateScoreMaxTasks(reassigned, 2) -
+          Schedule.calculateScoreMaxTasks(schedule, 2)
+        incrementalScore.score shouldBe Schedule.calculateScore(schedule, personList)
+      }
+      "keep the scores in line with the reassigned schedule" in {
+        val incrementalScore = new IncrementalScore(schedule, personList, 2)
+        val weekOption = List((31, person1))
+        val reassigned = Schedule.reassignTask(schedule, task3, weekOption)
+
+        incrementalScore.reassignTask(task3, weekOption)
+
+        incrementalScore.score shouldBe Schedule.calculateScore(reassigned, personList)
+        incrementalScore.scoreBalanced shouldBe Schedule.calculateScoreBalanced(reassigned, personList)
+        incrementalScore.scoreMaxTasks shouldBe Schedule.calculateScoreMaxTasks(reassigned, 2)
+        incrementalScore.assignmentOf(task3) shouldBe weekOption
+      }
+    }
+    "changing a single week" should {
+      "only move the task in that week" in {
+        val incrementalScore = new IncrementalScore(schedule, personList, 2)
+        val changed = Schedule.changeWeek(schedule, 32, task1, person2)
+
+        val delta = incrementalScore.changeWeek(32, task1, person2)
+
+        delta.score shouldBe Schedule.calculateScore(changed, personList) -
+          Schedule.calculateScore(schedule, personList)
+        incrementalScore.scoreBalanced shouldBe Schedule.calculateScoreBalanced(changed, personList)
+        incrementalScore.assignmentOf(task1) shouldBe List((30, person1), (31, person2), (32, person2))
+      }
+    }
+    "given a week outside of the schedule" should {
+      "throw an exception" in {
+        val incrementalScore = new IncrementalScore(schedule, personList)
+
+        an[IllegalArgumentException] should be thrownBy incrementalScore.changeWeekDelta(40, task1, person1)
+      }
+    }
+  }
+}
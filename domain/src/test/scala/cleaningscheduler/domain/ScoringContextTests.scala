@@ -0,0 +1,63 @@
+package cleaningscheduler.domain
+
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.jdk.CollectionConverters.*
+
+class ScoringContextTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 60, 31 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 10))
+  val outsider: Person = Person("PersonC", Map(30 -> 40, 31 -> 40))
+  val task1: Task = Task("task1", 30, person1, false, 25, false, 0, 0)
+  val task2: Task = Task("task2", 50, person2, false, 25, false, 0, 0)
+  val task3: Task = Task("task3", 20, outsider, false, 25, false, 0, 0)
+
+  val schedule: Schedule = Schedule(DateTime.now(), List(
+    Week(30, Map(task1 -> person1, task2 -> person1, task3 -> outsider)),
+    Week(31, Map(task2 -> person2)),
+    Week(32, Map(task1 -> person2))
+  ))
+
+  "ScoringContext" when {
+    "given a list of persons" should {
+      "give the same scores as Schedule" in {
+        val personList = List(person1, person2)
+        val context = new ScoringContext(personList)
+
+        context.score(schedule) shouldBe Schedule.calculateScore(schedule, personList)
+        context.scoreBalanced(schedule) shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+        context.scoreMaxTasks(schedule, 2) shouldBe Schedule.calculateScoreMaxTasks(schedule, 2)
+      }
+    }
+    "a person is listed twice" should {
+      "count that person twice" in {
+        val personList = List(person1, person2, person1)
+        val context = new ScoringContext(personList)
+
+        context.score(schedule) shouldBe Schedule.calculateScore(schedule, personList)
+        context.scoreBalanced(schedule) shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+      }
+    }
+    "a person has the name of a listed person but another availability" should {
+      "not count as that person" in {
+        val personList = List(person1, person2)
+        val renamedOutsider = outsider.copy(name = person1.name)
+        val otherSchedule = Schedule(DateTime.now(), List(Week(30, Map(task1 -> renamedOutsider))))
+
+        new ScoringContext(personList).score(otherSchedule) shouldBe
+          Schedule.calculateScore(otherSchedule, personList)
+      }
+    }
+    "scoring many schedules" should {
+      "score them in order" in {
+        val personList = List(person1, person2)
+        val otherSchedule = Schedule(DateTime.now(), List(Week(31, Map(task1 -> person1))))
+
+        new ScoringContext(personList).scores(List[ISchedule](schedule, otherSchedule).asJava).asScala shouldBe
+          List(Schedule.calculateScore(schedule, personList), Schedule.calculateScore(otherSchedule, personList))
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.*
+import cleaningscheduler.domain.search.{CostFunction, ScheduleSearcher}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.jdk.CollectionConverters.*
+
+class GreedySchedulerTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30, 31 -> 20, 32 -> 30, 33 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 20, 31 -> 30, 32 -> 0, 33 -> 20))
+  val task1: Task = Task("task1", 30, person2, false, 29, true, 1, 2)
+  val task2: Task = Task("task2", 20, person2, false, 28, true, 2, 2)
+  val task3: Task = Task("task3", 10, person1, true, 28, true, 2, 3)
+  val task4: Task = Task("task4", 10, person2, false, 25, false, 2, 2)
+  val taskList: List[Task] = List(task1, task2, task3, task4)
+  val personList: List[Person] = List(person1, person2)
+
+  def weeksOf(schedule: Schedule, task: Task): List[Int] =
+    schedule.weekList.filter(_.taskAssignment.contains(task)).map(_.weekNumber)
+
+  "scheduleGreedily" when {
+    "the repeat interval is variable" should {
+      "give every task a valid sequence of weeks" in {
+        val schedule = GreedyScheduler.scheduleGreedily(personList, taskList, 30, 4, true)
+
+        taskList.foreach { task =>
+          LocalSearchScheduler.isValidWeekSequence(task, weeksOf(schedule, task), 30, 4, true) shouldBe true
+        }
+      }
+    }
+    "the repeat interval is fixed" should {
+      "give every task a valid sequence of weeks" in {
+        val schedule = GreedyScheduler.scheduleGreedily(personList, taskList, 30, 4, false)
+
+        taskList.foreach { task =>
+          LocalSearchScheduler.isValidWeekSequence(task, weeksOf(schedule, task), 30, 4, false) shouldBe true
+        }
+      }
+    }
+    "a task is fixed" should {
+      "leave it with its preferred assignee" in {
+        val schedule = GreedyScheduler.scheduleGreedily(personList, taskList, 30, 4, true)
+
+        schedule.weekList.flatMap(_.taskAssignment.get(task3)).distinct shouldBe List(person1)
+      }
+    }
+    "one person has more time left" should {
+      "give the task to that person" in {
+        val task = Task("task", 10, person2, false, 25, false, 0, 0)
+
+        val schedule = GreedyScheduler.scheduleGreedily(personList, List(task), 30, 1, false)
+
+        schedule.weekList.head.taskAssignment shouldBe Map(task -> person1)
+      }
+    }
+    "the schedule has no weeks" should {
+      "return an empty schedule" in {
+        val schedule = GreedyScheduler.scheduleGreedily(personList, taskList, 30, 0, true)
+
+        schedule.weekList shouldBe List()
+      }
+    }
+  }
+
+  "GreedyScheduler" when {
+    "scheduling" should {
+      "return the greedy schedule" in {
+        val scheduler = new GreedyScheduler
+
+        val schedule = scheduler.schedule(personList.asJava, taskList.asJava, 30, 4, true)
+
+        schedule.weekList shouldBe GreedyScheduler.scheduleGreedily(personList, taskList, 30, 4, true).weekList
+      }
+    }
+    "used as the incumbent of the tree search" should {
+      "find the same score as the search without it" in {
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false, true)
+        val incumbent = GreedyScheduler.scheduleGreedily(personList, taskList, 30, 4, true)
+        val costFunction = CostFunction.PersonCosts(personList)
+
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule, costFunction)
+        val resultWithIncumbent = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          costFunction, None, Some(incumbent))
+
+        resultWithIncumbent.score shouldBe result.score
+        resultWithIncumbent.schedule shouldBe result.schedule
+        resultWithIncumbent.visitedNodes should be <= result.visitedNodes
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.*
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.jdk.CollectionConverters.*
+
+class LocalSearchSchedulerTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 1, 2)
+  val task2: Task = Task("task2", 30, person2, false, 28, true, 2, 2)
+  val taskList: List[Task] = List(task1, task2)
+  val personList: List[Person] = List(person1, person2)
+
+  "LocalSearchScheduler" when {
+    "given costs pp per week function" should {
+      "find a schedule at least as good as the default schedule" in {
+        val scheduler = new LocalSearchScheduler(5000, 10000, 1)
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+
+        val schedule = scheduler.schedule(personList.asJava, taskList.asJava, 30, 4, true)
+
+        scheduler.calculateScore(schedule, personList.asJava) should be >=
+          Schedule.calculateScore(defaultSchedule, personList)
+      }
+      "give every task a valid sequence of weeks" in {
+        val (schedule, score) = LocalSearchScheduler.searchSchedule(personList, taskList, 30, 4, true, false,
+          5000, 10000, 1)
+
+        taskList.foreach { task =>
+          val weekNumbers = schedule.weekList.filter(_.taskAssignment.contains(task)).map(_.weekNumber)
+          LocalSearchScheduler.isValidWeekSequence(task, weekNumbers, 30, 4, true) shouldBe true
+        }
+        score shouldBe Schedule.calculateScore(schedule, personList)
+      }
+      "return the same schedule for the same seed" in {
+        val (first, _) = LocalSearchScheduler.searchSchedule(personList, taskList, 30, 4, true, false, 2000, 10000, 7)
+        val (second, _) = LocalSearchScheduler.searchSchedule(personList, taskList, 30, 4, true, false, 2000, 10000, 7)
+
+        first.weekList shouldBe second.weekList
+      }
+    }
+    "given balanced costs" should {
+      "report the balanced score of the schedule it returns" in {
+        val (schedule, score) = LocalSearchScheduler.searchSchedule(personList, taskList, 30, 4, true, true,
+          5000, 10000, 1)
+
+        score shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+        score should be >= Schedule.calculateScoreBalanced(
+          Schedule.defaultSchedule(taskList, 30, 4, DateTime.now()), personList)
+      }
+    }
+    "given a full year with many persons and tasks" should {
+      "stay within the time budget" in {
+        val persons = (1 to 20).map(index => Person("Person" + index, (1 to 52).map(week => (week, 30 + index)).toMap))
+        val tasks = (1 to 30).map(index =>
+          Task("task" + index, 10 + index, persons(index % persons.length), false, 1, true, 1 + index % 3, 2 + index % 3))
+        val scheduler = new LocalSearchScheduler(Int.MaxValue, 500, 1)
+
+        val start = System.currentTimeMillis()
+        val schedule = scheduler.scheduleBalanced(persons.toList.asJava, tasks.toList.asJava, 1, 52, true)
+
+        System.currentTimeMillis() - start should be < 10000L
+        schedule.weekListAsJava.size shouldBe 52
+      }
+    }
+    "given a week sequence" should {
+      "check the repeat intervals" in {
+        LocalSearchScheduler.isValidWeekSequence(task1, List(30, 32, 33), 30, 4, true) shouldBe true
+        LocalSearchScheduler.isValidWeekSequence(task1, List(30, 33), 30, 4, true) shouldBe false
+        LocalSearchScheduler.isValidWeekSequence(task1, List(30, 32, 33), 30, 4, false) shouldBe false
+      }
+    }
+  }
+}
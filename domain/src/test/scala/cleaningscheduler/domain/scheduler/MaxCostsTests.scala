@@ -143,6 +143,11 @@ class MaxCostsTests extends AnyWordSpec {
         assert(durationInS < 15)
       }
     }
+    "given a parallelism below one" should {
+      "not be created" in {
+        assertThrows[IllegalArgumentException](new MaxCostsPerPersonScheduler(0))
+      }
+    }
   }
 
 }
\ No newline at end of file
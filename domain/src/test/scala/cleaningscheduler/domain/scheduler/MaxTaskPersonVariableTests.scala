@@ -190,6 +190,22 @@ class MaxTaskPersonVariableTests extends AnyWordSpec {
         }
       }
     }
+    "searching with more persons than tasks" should {
+      "only try one person per task occurrence" in {
+        val personList = List("PersonA", "PersonB", "PersonC", "PersonD")
+          .map(name => Person(name, Map(30 -> 40, 31 -> 40)))
+        val task1 = Task("task1", 30, personList.head, false, 25, false, 0, 0)
+        val task2 = Task("task2", 30, personList(1), false, 25, true, 1, 1)
+        val taskList = List(task1, task2)
+
+        val result = MaxTaskPersonVariableScheduler.searchMaxTasksPersonVariable(
+          personList, taskList, 30, 2, 1, None)
+
+        assert(result.visitedNodes + result.prunedNodes <= 4)
+        assert(result.score == Schedule.calculateScoreMaxTasks(
+          Schedule.defaultSchedule(taskList, 30, 2, DateTime.now()), 1))
+      }
+    }
     "scheduling balanced" should {
       "return the same schedule as the unbalanced version" in {
         val person1 = Person("PersonA", Map(30 -> 40, 31 -> 40))
@@ -0,0 +1,58 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.*
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.jdk.CollectionConverters.*
+
+class MinCostFlowSchedulerTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30, 31 -> 20, 32 -> 30, 33 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 20, 31 -> 30, 32 -> 0, 33 -> 20))
+  val task1: Task = Task("task1", 30, person2, false, 29, true, 1, 1)
+  val task2: Task = Task("task2", 20, person2, false, 29, true, 1, 1)
+  val task3: Task = Task("task3", 10, person1, true, 28, true, 2, 2)
+  val taskList: List[Task] = List(task1, task2, task3)
+  val personList: List[Person] = List(person1, person2)
+
+  "MinCostFlowScheduler" when {
+    "given costs pp per week function" should {
+      "keep the weeks of the default schedule and beat its score" in {
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+
+        val (schedule, score) = MinCostFlowScheduler.scheduleWithFlow(personList, taskList, 30, 4, false, 10)
+
+        schedule.weekList.map(_.taskAssignment.keySet) shouldBe defaultSchedule.weekList.map(_.taskAssignment.keySet)
+        score shouldBe Schedule.calculateScore(schedule, personList)
+        score should be >= Schedule.calculateScore(defaultSchedule, personList)
+      }
+      "leave fixed tasks with their preferred assignee" in {
+        val (schedule, _) = MinCostFlowScheduler.scheduleWithFlow(personList, taskList, 30, 4, false, 10)
+
+        schedule.weekList.flatMap(_.taskAssignment.get(task3)).distinct shouldBe List(person1)
+      }
+    }
+    "given balanced costs" should {
+      "report the balanced score of the schedule it returns" in {
+        val (schedule, score) = MinCostFlowScheduler.scheduleWithFlow(personList, taskList, 30, 4, true, 10)
+
+        score shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+      }
+    }
+    "given a full year with many persons and tasks" should {
+      "schedule within a few seconds" in {
+        val persons = (1 to 10).map(index => Person("Person" + index, (1 to 52).map(week => (week, 30 + index)).toMap))
+        val tasks = (1 to 15).map(index =>
+          Task("task" + index, 10 + index, persons(index % persons.length), false, 1, true, 1 + index % 3, 2 + index % 3))
+        val scheduler = new MinCostFlowScheduler()
+
+        val start = System.currentTimeMillis()
+        val schedule = scheduler.schedule(persons.toList.asJava, tasks.toList.asJava, 1, 52, false)
+
+        System.currentTimeMillis() - start should be < 10000L
+        schedule.weekListAsJava.size shouldBe 52
+      }
+    }
+  }
+}
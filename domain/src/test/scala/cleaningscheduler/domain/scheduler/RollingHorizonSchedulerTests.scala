@@ -0,0 +1,93 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.*
+import cleaningscheduler.domain.search.CostFunction
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.ForkJoinPool
+
+class RollingHorizonSchedulerTests extends AnyWordSpec with Matchers {
+  val availability: Map[Int, Int] = (30 until 40).map(weekNumber => (weekNumber, 40)).toMap
+  val person1: Person = Person("PersonA", availability)
+  val person2: Person = Person("PersonB", availability.updated(33, 0))
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 2, 3)
+  val task2: Task = Task("task2", 20, person2, false, 28, true, 3, 3)
+  val task3: Task = Task("task3", 10, person1, true, 25, false, 5, 5)
+  val taskList: List[Task] = List(task1, task2, task3)
+  val personList: List[Person] = List(person1, person2)
+  val costFunction: CostFunction = CostFunction.PersonCosts(personList)
+  val pool: ForkJoinPool = new ForkJoinPool(1)
+
+  def weeksOf(schedule: Schedule, task: Task): List[Int] =
+    schedule.weekList.filter(_.taskAssignment.contains(task)).map(_.weekNumber)
+
+  "scheduleRolling" when {
+    "the schedule is longer than a window" should {
+      "give every week of the schedule" in {
+        val (schedule, _) = RollingHorizonScheduler.scheduleRolling(personList, taskList, 30, 10, true,
+          costFunction, 4, 1, pool, None)
+
+        schedule.weekList.map(_.weekNumber) shouldBe (30 until 40).toList
+      }
+      "keep the repeat intervals across the windows" in {
+        List(true, false).foreach { isIntervalVariable =>
+          val (schedule, _) = RollingHorizonScheduler.scheduleRolling(personList, taskList, 30, 10,
+            isIntervalVariable, costFunction, 4, 1, pool, None)
+
+          taskList.foreach { task =>
+            LocalSearchScheduler.isValidWeekSequence(task, weeksOf(schedule, task), 30, 10,
+              isIntervalVariable) shouldBe true
+          }
+        }
+      }
+      "use the original tasks and not be proven optimal" in {
+        val (schedule, isProvenOptimal) = RollingHorizonScheduler.scheduleRolling(personList, taskList, 30, 10,
+          true, costFunction, 4, 1, pool, None)
+
+        schedule.weekList.flatMap(_.taskAssignment.keys).toSet should contain only (task1, task2, task3)
+        isProvenOptimal shouldBe false
+      }
+    }
+    "the schedule fits in one window" should {
+      "search it at once" in {
+        val (schedule, isProvenOptimal) = RollingHorizonScheduler.scheduleRolling(personList, taskList, 30, 4,
+          false, costFunction, 4, 1, pool, None)
+        val (exactSchedule, _) = MaxCostsPerPersonScheduler.searchWithCostFunction(personList, taskList, 30, 4,
+          false, costFunction, pool, None)
+
+        costFunction(schedule) shouldBe costFunction(exactSchedule)
+        isProvenOptimal shouldBe true
+      }
+    }
+  }
+
+  "scoreLoss" when {
+    "the windows are shorter than the schedule" should {
+      "never be negative" in {
+        RollingHorizonScheduler.scoreLoss(personList, taskList, 30, 6, false, costFunction, 3, 1).get should be >= 0
+      }
+    }
+    "the schedule is long enough for the quick version" should {
+      "still compare with the exact search" in {
+        val loss = RollingHorizonScheduler.scoreLoss(personList, taskList, 30, 8, false, costFunction, 4, 1)
+
+        loss shouldBe defined
+        loss.get should be >= 0
+      }
+    }
+    "a window covers the whole schedule" should {
+      "be 0" in {
+        RollingHorizonScheduler.scoreLoss(personList, taskList, 30, 4, false, costFunction, 4, 0) shouldBe Some(0)
+      }
+    }
+  }
+
+  "RollingHorizonScheduler" when {
+    "the overlap isn't shorter than the window" should {
+      "not be created" in {
+        an[IllegalArgumentException] should be thrownBy new RollingHorizonScheduler(2, 2, 1)
+      }
+    }
+  }
+}
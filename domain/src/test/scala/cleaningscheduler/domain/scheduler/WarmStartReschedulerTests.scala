@@ -0,0 +1,57 @@
+package cleaningscheduler.domain.scheduler
+
+import cleaningscheduler.domain.*
+import cleaningscheduler.domain.search.CostFunction
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class WarmStartReschedulerTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 40, 31 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 40))
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 1, 1)
+  val baseSchedule: Schedule = Schedule(DateTime.now(), List(
+    Week(30, Map(task1 -> person1)),
+    Week(31, Map(task1 -> person2))
+  ))
+
+  "reschedule" when {
+    "nothing changed" should {
+      "keep the base schedule" in {
+        val personList = List(person1, person2)
+
+        val schedule = WarmStartRescheduler.reschedule(baseSchedule, personList, List(task1), false,
+          CostFunction.PersonCosts(personList), None)
+
+        schedule.weekList shouldBe baseSchedule.weekList
+      }
+    }
+    "a person is no longer available" should {
+      "move their tasks in that week to someone else" in {
+        val changedPerson1 = Person.changeAvailability(person1, Map(30 -> 0, 31 -> 40))
+        val personList = List(changedPerson1, person2)
+        val changedTask1 = Task.changePreferredAssignee(task1, changedPerson1)
+
+        val schedule = WarmStartRescheduler.reschedule(baseSchedule, personList, List(changedTask1), false,
+          CostFunction.PersonCosts(personList), None)
+
+        schedule.weekList.head.taskAssignment shouldBe Map(changedTask1 -> person2)
+        schedule.weekList(1).taskAssignment shouldBe Map(changedTask1 -> person2)
+      }
+    }
+    "a task was added" should {
+      "schedule it in the weeks of the base schedule" in {
+        val personList = List(person1, person2)
+        val task2 = Task("task2", 20, person1, false, 29, true, 1, 1)
+
+        val schedule = WarmStartRescheduler.reschedule(baseSchedule, personList, List(task1, task2), false,
+          CostFunction.PersonCosts(personList), None)
+
+        schedule.weekList.map(_.taskAssignment.contains(task2)) shouldBe List(true, true)
+        Schedule.calculateScore(schedule, personList) should be >=
+          Schedule.calculateScore(Schedule.reassignTask(baseSchedule, task2, List((30, person1), (31, person1))),
+            personList)
+      }
+    }
+  }
+}
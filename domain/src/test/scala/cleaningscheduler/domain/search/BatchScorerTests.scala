@@ -0,0 +1,79 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class BatchScorerTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+  val personList: List[Person] = List(person1, person2, person1)
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 1, 2)
+  val task2: Task = Task("task2", 20, person2, false, 28, true, 2, 2)
+  val taskList: List[Task] = List(task1, task2)
+
+  def compile(): CompiledProblem =
+    val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+    val optionsList = ScheduleSearcher.getOptionsList(taskList, personList.distinct, 30, 4, false)
+    val withoutSearchedTasks = optionsList.foldLeft(defaultSchedule) { (schedule, option) =>
+      Schedule.reassignTask(schedule, option._1, List())
+    }
+    CompiledProblem.compile(defaultSchedule, withoutSearchedTasks, personList,
+      optionsList.map((task, options) => options.map(option => (task, option))), true)
+
+  "BatchScorer" when {
+    "given the leaves of a search" should {
+      "score every lane like CompactSchedule" in {
+        val problem = compile()
+        val schedule = new CompactSchedule(problem, problem.initialAssignment)
+        val batchScorer = new BatchScorer(problem, 8, ScalarLaneKernel)
+        val leaves = new CombinationEnumerator(problem.levels.map(_.toVector).toVector)
+
+        while leaves.hasNext do
+          batchScorer.clear()
+          var expectedScores = List[Int]()
+          while leaves.hasNext && !batchScorer.isFull do
+            val options = leaves.next()
+            options.zipWithIndex.foreach((option, depth) => schedule.applyOption(option, depth))
+            batchScorer.add(schedule)
+            expectedScores = expectedScores :+ schedule.score
+            options.zipWithIndex.reverse.foreach((option, depth) => schedule.undoOption(option, depth))
+
+          batchScorer.scoreAll().take(batchScorer.candidateCount).toList shouldBe expectedScores
+      }
+      "give back the assignment of a lane" in {
+        val problem = compile()
+        val schedule = new CompactSchedule(problem, problem.initialAssignment)
+        problem.levels.zipWithIndex.foreach((options, depth) => schedule.applyOption(options.last, depth))
+        val expected = Array.ofDim[Int](problem.weekNumbers.length, problem.tasks.length)
+        schedule.copyAssignmentInto(expected)
+        val batchScorer = new BatchScorer(problem, 2, ScalarLaneKernel)
+        batchScorer.add(problem.initialAssignment)
+        val lane = batchScorer.add(schedule)
+
+        val assignment = Array.ofDim[Int](problem.weekNumbers.length, problem.tasks.length)
+        batchScorer.copyLaneInto(lane, assignment)
+
+        assignment.map(_.toList).toList shouldBe expected.map(_.toList).toList
+      }
+    }
+    "given a full batch" should {
+      "not take another candidate" in {
+        val problem = compile()
+        val batchScorer = new BatchScorer(problem, 1, ScalarLaneKernel)
+        batchScorer.add(problem.initialAssignment)
+
+        an[IllegalArgumentException] should be thrownBy batchScorer.add(problem.initialAssignment)
+      }
+    }
+  }
+
+  "LaneKernel" when {
+    "the vectorscoring module isn't loaded" should {
+      "have no vectorized kernel" in {
+        LaneKernel.vectorized shouldBe None
+      }
+    }
+  }
+}
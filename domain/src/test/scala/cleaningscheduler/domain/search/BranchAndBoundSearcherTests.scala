@@ -0,0 +1,166 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.duration.{Deadline, DurationInt}
+
+class BranchAndBoundSearcherTests extends AnyWordSpec with Matchers {
+  "CostFunction" when {
+    "given a schedule with only committed tasks" should {
+      "bound the balanced score with the regular score" in {
+        val person1 = Person("PersonA", Map(30 -> 60, 31 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 40, 31 -> 40))
+        val task1 = Task("task1", 30, person1, false, 25, false, 0, 0)
+        val task2 = Task("task2", 30, person2, false, 25, false, 0, 0)
+        val week1 = Week(30, Map(task1 -> person1, task2 -> person1))
+        val week2 = Week(31, Map(task2 -> person2))
+        val schedule = Schedule(DateTime.now(), List(week1, week2))
+
+        val costFunction = CostFunction.BalancedPersonCosts(List(person1, person2))
+
+        costFunction(schedule) shouldBe 90 - 15
+        costFunction.upperBound(schedule) shouldBe 90
+      }
+    }
+  }
+
+  "searchBestScheduleBranchAndBound" when {
+    "given costs pp per week function" should {
+      "find the same schedule as the exhaustive search" in {
+        val person1 = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+        val task1 = Task("task1", 30, person1, false, 29, true, 1, 2)
+        val task2 = Task("task2", 30, person2, false, 28, true, 2, 2)
+        val taskList = List(task1, task2)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false)
+
+        val (expectedSchedule, expectedScore) = ScheduleSearcher.searchBestScheduleLazily(optionsList,
+          defaultSchedule, Schedule.calculateScore(_, personList))
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList))
+
+        result.schedule shouldBe expectedSchedule
+        result.score shouldBe expectedScore
+      }
+    }
+    "given balanced costs" should {
+      "find the same score as the exhaustive search" in {
+        val person1 = Person("PersonA", Map(30 -> 60, 31 -> 60))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 60))
+        val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+        val task2 = Task("task2", 30, person1, false, 25, true, 1, 1)
+        val taskList = List(task1, task2)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 2, false, false)
+
+        val (_, expectedScore) = ScheduleSearcher.searchBestScheduleLazily(optionsList,
+          defaultSchedule, Schedule.calculateScoreBalanced(_, personList))
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.BalancedPersonCosts(personList))
+
+        result.score shouldBe expectedScore
+      }
+    }
+    "no option can beat the default schedule" should {
+      "prune every option and report the counts" in {
+        val person1 = Person("PersonA", Map(30 -> 30, 31 -> 30))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 0))
+        val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+        val taskList = List(task1)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 2, false, false)
+
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList))
+
+        result.schedule shouldBe defaultSchedule
+        result.score shouldBe 0
+        result.visitedNodes shouldBe 1
+        result.prunedNodes shouldBe 4
+      }
+    }
+    "the deadline has passed" should {
+      "return the default schedule as an incomplete result" in {
+        val person1 = Person("PersonA", Map(30 -> 0, 31 -> 0))
+        val person2 = Person("PersonB", Map(30 -> 30, 31 -> 30))
+        val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+        val taskList = List(task1)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 2, false, false)
+
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList), Some(Deadline.now - 1.second))
+        val completeResult = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList), Some(Deadline.now + 1.minute))
+
+        result.schedule shouldBe defaultSchedule
+        result.visitedNodes shouldBe 1
+        result.isComplete shouldBe false
+        completeResult.score shouldBe 0
+        completeResult.isComplete shouldBe true
+      }
+    }
+    "given a leaf kernel" should {
+      "find the same schedule as scoring every leaf on its own" in {
+        val person1 = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+        val task1 = Task("task1", 30, person1, false, 29, true, 1, 2)
+        val task2 = Task("task2", 20, person2, false, 28, true, 2, 2)
+        val task3 = Task("task3", 10, person1, false, 29, true, 1, 3)
+        val taskList = List(task1, task2, task3)
+        val personList = List(person1, person2)
+        val costFunction = CostFunction.PersonCosts(personList)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false)
+        val withoutSearchedTasks = optionsList.foldLeft(defaultSchedule) { (schedule, option) =>
+          Schedule.reassignTask(schedule, option._1, List())
+        }
+        val problem = CompiledProblem.compile(defaultSchedule, withoutSearchedTasks, personList,
+          optionsList.map((task, options) => options.map(option => (task, option))), true)
+
+        val expected = BranchAndBoundSearcher.searchBestSchedule(problem, costFunction, leafKernel = None)
+        val result = BranchAndBoundSearcher.searchBestSchedule(problem, costFunction,
+          leafKernel = Some(ScalarLaneKernel))
+
+        result.schedule shouldBe expected.schedule
+        result.score shouldBe expected.score
+        Schedule.calculateScore(result.schedule, personList) shouldBe result.score
+      }
+    }
+  }
+
+  "searchBestScheduleBranchAndBound with only person variable" should {
+    "find the same score as the exhaustive search" in {
+      val person1 = Person("PersonA", Map(30 -> 40, 31 -> 20))
+      val person2 = Person("PersonB", Map(30 -> 10, 31 -> 60))
+      val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+      val task2 = Task("task2", 20, person2, false, 25, false, 0, 0)
+      val taskList = List(task1, task2)
+      val personList = List(person1, person2)
+
+      val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+      val optionsList = ScheduleSearcherOnlyPersonVariable.getOptionsList(taskList, personList, 30, 2)
+
+      val (expectedSchedule, expectedScore) = ScheduleSearcherOnlyPersonVariable.searchBestScheduleLazily(
+        optionsList, defaultSchedule, Schedule.calculateScore(_, personList))
+      val result = ScheduleSearcherOnlyPersonVariable.searchBestScheduleBranchAndBound(optionsList,
+        defaultSchedule, CostFunction.PersonCosts(personList))
+
+      result.schedule shouldBe expectedSchedule
+      result.score shouldBe expectedScore
+    }
+  }
+}
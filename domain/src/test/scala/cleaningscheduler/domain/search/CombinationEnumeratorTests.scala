@@ -0,0 +1,55 @@
+package cleaningscheduler.domain.search
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.util.Random
+
+class CombinationEnumeratorTests extends AnyWordSpec with Matchers {
+  val levels: Vector[Vector[String]] = Vector(Vector("a", "b"), Vector("x", "y", "z"), Vector("1", "2"))
+  val allCombinations: List[List[String]] = for
+    first <- levels(0).toList
+    second <- levels(1).toList
+    third <- levels(2).toList
+  yield List(first, second, third)
+
+  "CombinationEnumerator" when {
+    "walking all combinations" should {
+      "give them with the last level changing fastest" in {
+        new CombinationEnumerator(levels).toList shouldBe allCombinations
+      }
+      "give the empty combination when there are no levels" in {
+        new CombinationEnumerator(Vector[Vector[String]]()).toList shouldBe List(List())
+      }
+      "give nothing when a level has no options" in {
+        new CombinationEnumerator(Vector(Vector("a"), Vector[String]())).toList shouldBe List()
+      }
+    }
+    "skipping combinations" should {
+      "continue at the given index" in {
+        new CombinationEnumerator(levels).skip(7).toList shouldBe allCombinations.drop(7)
+      }
+    }
+    "split" should {
+      "cover the remaining combinations in order" in {
+        val (first, second) = new CombinationEnumerator(levels).skip(3).split
+
+        first.toList ++ second.toList shouldBe allCombinations.drop(3)
+      }
+    }
+    "asked for a single index" should {
+      "give the combination at that index" in {
+        CombinationEnumerator.size(levels) shouldBe 12
+        CombinationEnumerator.combinationAt(levels, 9) shouldBe allCombinations(9)
+      }
+    }
+    "sampling" should {
+      "only give existing combinations" in {
+        val samples = CombinationEnumerator.sample(levels, 20, new Random(1))
+
+        samples.length shouldBe 20
+        samples.foreach(sample => allCombinations should contain(sample))
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task, Week}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class CompactScheduleTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 60, 31 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 40))
+  val task1: Task = Task("task1", 30, person1, false, 25, true, 1, 1)
+  val task2: Task = Task("task2", 30, person2, false, 25, false, 0, 0)
+  val personList: List[Person] = List(person1, person2)
+
+  val schedule: Schedule = Schedule(DateTime.now(), List(
+    Week(30, Map(task1 -> person1, task2 -> person1)),
+    Week(31, Map(task1 -> person2))
+  ))
+  val weekOption: List[(Int, Person)] = List((30, person2), (31, person1))
+
+  def compile(replacesTask: Boolean): CompiledProblem =
+    CompiledProblem.compile(schedule, schedule, personList, List(List((task1, weekOption))), replacesTask)
+
+  "CompactSchedule" when {
+    "compiled from a schedule" should {
+      "give the same scores and schedule back" in {
+        val problem = compile(true)
+        val compactSchedule = new CompactSchedule(problem, problem.initialAssignment)
+
+        compactSchedule.score shouldBe Schedule.calculateScore(schedule, personList)
+        compactSchedule.scoreBalanced shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+        compactSchedule.scoreMaxTasks(1) shouldBe Schedule.calculateScoreMaxTasks(schedule, 1)
+        compactSchedule.toSchedule shouldBe schedule
+      }
+    }
+    "applying an option that replaces the task" should {
+      "score like Schedule.reassignTask" in {
+        val problem = compile(true)
+        val compactSchedule = new CompactSchedule(problem, problem.initialAssignment)
+        val reassigned = Schedule.reassignTask(schedule, task1, weekOption)
+
+        compactSchedule.applyOption(problem.levels(0)(0), 0)
+
+        compactSchedule.toSchedule shouldBe reassigned
+        compactSchedule.score shouldBe Schedule.calculateScore(reassigned, personList)
+        compactSchedule.scoreBalanced shouldBe Schedule.calculateScoreBalanced(reassigned, personList)
+      }
+    }
+    "applying an option that only changes its weeks" should {
+      "score like Schedule.changeWeek" in {
+        val problem = CompiledProblem.compile(schedule, schedule, personList,
+          List(List((task2, List((31, person2))))), false)
+        val compactSchedule = new CompactSchedule(problem, problem.initialAssignment)
+        val changed = Schedule.changeWeek(schedule, 31, task2, person2)
+
+        compactSchedule.applyOption(problem.levels(0)(0), 0)
+
+        compactSchedule.toSchedule shouldBe changed
+        compactSchedule.scoreMaxTasks(1) shouldBe Schedule.calculateScoreMaxTasks(changed, 1)
+      }
+    }
+    "undoing an option" should {
+      "restore the schedule and its scores" in {
+        val problem = compile(true)
+        val compactSchedule = new CompactSchedule(problem, problem.initialAssignment)
+
+        compactSchedule.applyOption(problem.levels(0)(0), 0)
+        compactSchedule.undoOption(problem.levels(0)(0), 0)
+
+        compactSchedule.toSchedule shouldBe schedule
+        compactSchedule.score shouldBe Schedule.calculateScore(schedule, personList)
+        compactSchedule.scoreBalanced shouldBe Schedule.calculateScoreBalanced(schedule, personList)
+      }
+    }
+  }
+
+  "CompiledProblem" when {
+    "an option uses a week outside of the schedule" should {
+      "throw an exception" in {
+        an[IllegalArgumentException] should be thrownBy CompiledProblem.compile(schedule, schedule, personList,
+          List(List((task1, List((40, person1))))), true)
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class DepthFirstSearcherTests extends AnyWordSpec with Matchers {
+  "searchBestScheduleLazily" when {
+    "given costs pp per week function" should {
+      "find the same schedule as the tree search" in {
+        val person1 = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+        val task1 = Task("task1", 30, person1, false, 29, true, 1, 2)
+        val task2 = Task("task2", 30, person2, false, 28, true, 2, 2)
+        val taskList = List(task1, task2)
+        val personList = List(person1, person2)
+
+        val date = DateTime.now()
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, date)
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false)
+        val optionsTree = ScheduleSearcher.buildOptionTree(optionsList)
+        val scheduleTree = ScheduleSearcher.buildScheduleTree(optionsTree, defaultSchedule)
+
+        val expected = ScheduleSearcher.searchBestSchedule(scheduleTree, Schedule.calculateScore(_, personList))
+        val result = ScheduleSearcher.searchBestScheduleLazily(optionsList, defaultSchedule,
+          Schedule.calculateScore(_, personList))
+
+        result shouldBe expected
+        result._2 shouldBe 30
+      }
+    }
+    "the first task has no options" should {
+      "only score the default schedule" in {
+        val person1 = Person("PersonA", Map(30 -> 40))
+        val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+
+        val defaultSchedule = Schedule.defaultSchedule(List(task1), 30, 1, DateTime.now())
+
+        val (schedule, score) = ScheduleSearcher.searchBestScheduleLazily(List((task1, List())),
+          defaultSchedule, Schedule.calculateScore(_, List(person1)))
+
+        schedule shouldBe defaultSchedule
+        score shouldBe 10
+      }
+    }
+  }
+
+  "searchBestScheduleLazily with only person variable" should {
+    "find the same schedule as the tree search" in {
+      val person1 = Person("PersonA", Map(30 -> 40, 31 -> 20))
+      val person2 = Person("PersonB", Map(30 -> 10, 31 -> 60))
+      val task1 = Task("task1", 30, person1, false, 25, true, 1, 1)
+      val task2 = Task("task2", 20, person2, false, 25, false, 0, 0)
+      val taskList = List(task1, task2)
+      val personList = List(person1, person2)
+
+      val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+      val optionsList = ScheduleSearcherOnlyPersonVariable.getOptionsList(taskList, personList, 30, 2)
+      val optionsTree = ScheduleSearcherOnlyPersonVariable.buildOptionTree(optionsList)
+      val scheduleTree = ScheduleSearcherOnlyPersonVariable.buildScheduleTree(optionsTree, defaultSchedule)
+
+      val expected = ScheduleSearcher.searchBestSchedule(scheduleTree, Schedule.calculateScore(_, personList))
+      val result = ScheduleSearcherOnlyPersonVariable.searchBestScheduleLazily(optionsList, defaultSchedule,
+        Schedule.calculateScore(_, personList))
+
+      result shouldBe expected
+    }
+  }
+
+  "searchBestSchedule" should {
+    "visit every prefix of the option levels" in {
+      var visited = 0
+      val defaultSchedule = Schedule(DateTime.now(), List())
+
+      DepthFirstSearcher.searchBestSchedule[Int](List(List(1, 2), List(3)), defaultSchedule,
+        (schedule, _) => schedule,
+        _ => {
+          visited += 1
+          0
+        })
+
+      visited shouldBe 5
+    }
+  }
+}
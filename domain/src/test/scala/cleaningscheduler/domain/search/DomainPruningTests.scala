@@ -0,0 +1,57 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class DomainPruningTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 10, 31 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 50, 31 -> 0))
+  val person3: Person = Person("PersonC", Map(30 -> 0, 31 -> 35))
+  val personList: List[Person] = List(person1, person2, person3)
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 1, 1)
+
+  "candidates" when {
+    "some persons can fit the task" should {
+      "keep those and the slack best of the others, best first" in {
+        DomainPruning(0).candidates(task1, 31, personList) shouldBe List(person1, person3)
+        DomainPruning(1).candidates(task1, 30, personList) shouldBe List(person2, person1)
+      }
+    }
+    "nobody can fit the task" should {
+      "keep the slack best persons" in {
+        val expensiveTask = Task("task2", 60, person1, false, 29, true, 1, 1)
+
+        DomainPruning(1).candidates(expensiveTask, 30, personList) shouldBe List(person2)
+      }
+    }
+    "the task has a fixed preferred assignee" should {
+      "only offer that person" in {
+        val fixedTask = Task("task3", 30, person3, true, 29, true, 1, 1)
+
+        DomainPruning.exact.candidates(fixedTask, 31, personList) shouldBe List(person3)
+      }
+    }
+  }
+
+  "getOptionsList with exact pruning" should {
+    "offer every person and find the same score as without pruning" in {
+      val task2 = Task("task2", 20, person2, false, 28, true, 2, 2)
+      val taskList = List(task1, task2)
+
+      val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+      val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 2, false)
+      val prunedOptionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 2, false,
+        domainPruning = Some(DomainPruning.exact))
+
+      val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+        CostFunction.PersonCosts(personList))
+      val prunedResult = ScheduleSearcher.searchBestScheduleBranchAndBound(prunedOptionsList, defaultSchedule,
+        CostFunction.PersonCosts(personList))
+
+      prunedOptionsList.map(_._2.toSet) shouldBe optionsList.map(_._2.toSet)
+      prunedResult.score shouldBe result.score
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Task}
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class FlowAssignmentTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30))
+  val person2: Person = Person("PersonB", Map(30 -> 20))
+  val personList: List[Person] = List(person1, person2)
+  val task1: Task = Task("task1", 30, person2, false, 29, true, 1, 1)
+  val task2: Task = Task("task2", 20, person2, false, 29, true, 1, 1)
+
+  "MinCostFlow" when {
+    "the cheapest edge is too small" should {
+      "send the rest over the next cheapest one" in {
+        val flow = new MinCostFlow(2)
+        val cheapEdge = flow.addEdge(0, 1, 2, 1)
+        val expensiveEdge = flow.addEdge(0, 1, 5, 3)
+
+        flow.run(0, 1, 4) shouldBe 4
+        flow.flowOn(cheapEdge) shouldBe 2
+        flow.flowOn(expensiveEdge) shouldBe 2
+      }
+    }
+  }
+
+  "assignWeek" when {
+    "the tasks fit the availability of the persons" should {
+      "give every person tasks within their availability" in {
+        FlowAssignment.assignWeek(30, List(task1, task2), personList, 20) shouldBe
+          Map(task1 -> person1, task2 -> person2)
+      }
+    }
+    "a task has a fixed preferred assignee" should {
+      "keep it there and count its costs" in {
+        val fixedTask = Task("task3", 20, person1, true, 29, true, 1, 1)
+
+        FlowAssignment.assignWeek(30, List(fixedTask, task2), personList, 20) shouldBe
+          Map(fixedTask -> person1, task2 -> person2)
+      }
+    }
+    "there are no persons" should {
+      "give every task to its preferred assignee" in {
+        FlowAssignment.assignWeek(30, List(task1), List(), 20) shouldBe Map(task1 -> person2)
+      }
+    }
+  }
+}
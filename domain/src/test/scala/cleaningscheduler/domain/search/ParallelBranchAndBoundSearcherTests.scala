@@ -0,0 +1,80 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.ForkJoinPool
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+
+class ParallelBranchAndBoundSearcherTests extends AnyWordSpec with Matchers {
+  "searchBestScheduleInParallel" when {
+    "given costs pp per week function" should {
+      "find the same schedule as the sequential search" in {
+        val person1 = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+        val task1 = Task("task1", 30, person1, false, 29, true, 1, 2)
+        val task2 = Task("task2", 30, person2, false, 28, true, 2, 2)
+        val taskList = List(task1, task2)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false)
+
+        val (expectedSchedule, expectedScore) = ScheduleSearcher.searchBestScheduleLazily(optionsList,
+          defaultSchedule, Schedule.calculateScore(_, personList))
+        val result = ScheduleSearcher.searchBestScheduleInParallel(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList), new ForkJoinPool(4))
+
+        result.schedule shouldBe expectedSchedule
+        result.score shouldBe expectedScore
+      }
+    }
+    "many schedules share the best score" should {
+      "return the first one in search order" in {
+        val person1 = Person("PersonA", Map(30 -> 60, 31 -> 60, 32 -> 60))
+        val person2 = Person("PersonB", Map(30 -> 60, 31 -> 60, 32 -> 60))
+        val task1 = Task("task1", 20, person1, false, 25, true, 1, 1)
+        val task2 = Task("task2", 20, person2, false, 25, true, 1, 1)
+        val task3 = Task("task3", 20, person2, false, 25, false, 0, 2)
+        val taskList = List(task1, task2, task3)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 3, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false, false)
+
+        val sequential = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.BalancedPersonCosts(personList))
+        val parallel = ScheduleSearcher.searchBestScheduleInParallel(optionsList, defaultSchedule,
+          CostFunction.BalancedPersonCosts(personList), new ForkJoinPool(3))
+
+        parallel.schedule shouldBe sequential.schedule
+        parallel.score shouldBe sequential.score
+      }
+    }
+    "the pool is shared" should {
+      "find the same schedule for every search" in {
+        val person1 = Person("PersonA", Map(30 -> 60, 31 -> 20, 32 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 20, 31 -> 60, 32 -> 40))
+        val task1 = Task("task1", 20, person1, false, 29, true, 1, 1)
+        val task2 = Task("task2", 30, person2, false, 29, true, 1, 2)
+        val taskList = List(task1, task2)
+        val personList = List(person1, person2)
+
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 3, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false)
+        val sequential = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList))
+        val pool = new ForkJoinPool(2)
+
+        val searches = (1 to 4).map(_ => Future(ScheduleSearcher.searchBestScheduleInParallel(optionsList,
+          defaultSchedule, CostFunction.PersonCosts(personList), pool)))
+
+        searches.map(Await.result(_, 30.seconds).schedule).toSet shouldBe Set(sequential.schedule)
+      }
+    }
+  }
+}
@@ -165,6 +165,19 @@ class ScheduleSearcherTests extends AnyWordSpec with Matchers {
         }
       }
     }
+    "the quick version has more than 50 options" should {
+      "pick 50 different options" in {
+        val person1 = Person("PersonA", Map(30 -> 40, 31 -> 40))
+        val person2 = Person("PersonB", Map(30 -> 40, 31 -> 40))
+        val task1 = Task("task1", 30, person1, false, 25, false, 0, 80)
+
+        val optionsList = ScheduleSearcher.getOptionsList(List(task1), List(person1, person2), 30, 100)
+
+        optionsList.head._2.length shouldBe 50
+        optionsList.head._2.distinct.length shouldBe 50
+        optionsList.head._2.foreach(option => option.head._1 should (be >= 30 and be <= 110))
+      }
+    }
 
     //    "number of options is larger than 100" should {
     //      "pick 100 random options" in {
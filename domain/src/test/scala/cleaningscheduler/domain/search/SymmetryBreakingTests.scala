@@ -0,0 +1,81 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.ForkJoinPool
+
+class SymmetryBreakingTests extends AnyWordSpec with Matchers {
+  val owner: Person = Person("PersonA", Map(30 -> 20, 31 -> 60, 32 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 40, 32 -> 40))
+  val person3: Person = Person("PersonC", Map(30 -> 40, 31 -> 40, 32 -> 40))
+  val personList: List[Person] = List(owner, person2, person3)
+  val task1: Task = Task("task1", 30, owner, false, 29, true, 1, 2)
+  val task2: Task = Task("task2", 30, owner, false, 29, true, 1, 2)
+  val task3: Task = Task("task3", 20, owner, false, 28, true, 2, 2)
+  val taskList: List[Task] = List(task1, task2, task3)
+
+  def compile(optionsList: List[(Task, List[List[(Int, Person)]])], persons: List[Person]): CompiledProblem =
+    val defaultSchedule = Schedule.defaultSchedule(optionsList.map(_._1), 30, 3, DateTime.now())
+    val withoutSearchedTasks = optionsList.foldLeft(defaultSchedule) { (schedule, option) =>
+      Schedule.reassignTask(schedule, option._1, List())
+    }
+    CompiledProblem.compile(defaultSchedule, withoutSearchedTasks, persons,
+      optionsList.map((task, options) => options.map(option => (task, option))), true)
+
+  "detect" when {
+    "two persons have the same availability and aren't preferred" should {
+      "swap them" in {
+        val problem = compile(ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false), personList)
+
+        problem.symmetryBreaking.swapCount shouldBe 1
+      }
+    }
+    "a person is the preferred assignee" should {
+      "not swap that person" in {
+        val task4 = Task("task4", 30, person2, false, 29, true, 1, 2)
+        val persons = List(person2, person3)
+        val problem = compile(ScheduleSearcher.getOptionsList(List(task4), persons, 30, 3, false), persons)
+
+        problem.symmetryBreaking.swapCount shouldBe 0
+      }
+    }
+    "two tasks have the same costs and options" should {
+      "make the later level a twin of the earlier one" in {
+        val problem = compile(ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false), personList)
+
+        problem.symmetryBreaking.twinLevels shouldBe Array(-1, 0, -1)
+      }
+    }
+  }
+
+  "searchBestScheduleBranchAndBound" when {
+    "persons and tasks are interchangeable" should {
+      "find the same score as the exhaustive search" in {
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false)
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 3, DateTime.now())
+
+        val (_, expectedScore) = ScheduleSearcher.searchBestScheduleLazily(optionsList, defaultSchedule,
+          schedule => Schedule.calculateScore(schedule, personList))
+        val result = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList))
+
+        result.score shouldBe expectedScore
+        Schedule.calculateScore(result.schedule, personList) shouldBe expectedScore
+      }
+      "find the same balanced score as the exhaustive search" in {
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 3, false)
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 3, DateTime.now())
+
+        val (_, expectedScore) = ScheduleSearcher.searchBestScheduleLazily(optionsList, defaultSchedule,
+          schedule => Schedule.calculateScoreBalanced(schedule, personList))
+        val result = ScheduleSearcher.searchBestScheduleInParallel(optionsList, defaultSchedule,
+          CostFunction.BalancedPersonCosts(personList), new ForkJoinPool(2))
+
+        result.score shouldBe expectedScore
+      }
+    }
+  }
+}
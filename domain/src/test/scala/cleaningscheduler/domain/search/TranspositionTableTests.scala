@@ -0,0 +1,132 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class TranspositionTableTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 40, 31 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 40, 31 -> 40))
+  val personList: List[Person] = List(person1, person2)
+  val task1: Task = Task("task1", 20, person1, false, 29, false, 0, 0)
+  val task2: Task = Task("task2", 20, person2, false, 29, false, 0, 0)
+  val taskList: List[Task] = List(task1, task2)
+
+  def compile(levels: List[List[(Task, List[(Int, Person)])]]): CompiledProblem =
+    val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+    val withoutSearchedTasks = taskList.foldLeft(defaultSchedule) { (schedule, task) =>
+      Schedule.reassignTask(schedule, task, List())
+    }
+    CompiledProblem.compile(defaultSchedule, withoutSearchedTasks, personList, levels, false)
+
+  val personLevels: List[List[(Task, List[(Int, Person)])]] = taskList.map { task =>
+    personList.map(person => (task, List((30, person))))
+  }
+
+  "visit" when {
+    "a key is visited twice" should {
+      "only report the second visit" in {
+        val table = new TranspositionTable(16)
+
+        table.visit(42L) shouldBe false
+        table.visit(42L) shouldBe true
+      }
+    }
+    "a key lands in the slot of another key" should {
+      "replace the older key" in {
+        val table = new TranspositionTable(16)
+
+        table.visit(1L) shouldBe false
+        table.visit(17L) shouldBe false
+        table.visit(1L) shouldBe false
+      }
+    }
+    "the table is cleared" should {
+      "forget every key" in {
+        val table = new TranspositionTable(16)
+        table.visit(42L)
+
+        table.clear()
+
+        table.visit(42L) shouldBe false
+      }
+    }
+  }
+
+  "stateKey" when {
+    "two paths give every person the same costs" should {
+      "be the same" in {
+        val problem = compile(personLevels)
+        val firstPath = new CompactSchedule(problem, problem.initialAssignment)
+        val secondPath = new CompactSchedule(problem, problem.initialAssignment)
+
+        firstPath.applyOption(problem.levels(0)(0), 0)
+        firstPath.applyOption(problem.levels(1)(1), 1)
+        secondPath.applyOption(problem.levels(0)(1), 0)
+        secondPath.applyOption(problem.levels(1)(0), 1)
+
+        firstPath.toSchedule should not be secondPath.toSchedule
+        firstPath.stateKey shouldBe secondPath.stateKey
+      }
+    }
+    "two paths give a person other costs" should {
+      "differ" in {
+        val problem = compile(personLevels)
+        val firstPath = new CompactSchedule(problem, problem.initialAssignment)
+        val secondPath = new CompactSchedule(problem, problem.initialAssignment)
+
+        firstPath.applyOption(problem.levels(0)(0), 0)
+        firstPath.applyOption(problem.levels(1)(1), 1)
+        secondPath.applyOption(problem.levels(0)(0), 0)
+        secondPath.applyOption(problem.levels(1)(0), 1)
+
+        firstPath.stateKey should not be secondPath.stateKey
+      }
+    }
+    "an option is undone" should {
+      "be the key from before" in {
+        val problem = compile(personLevels)
+        val compactSchedule = new CompactSchedule(problem, problem.initialAssignment)
+        val keyBefore = compactSchedule.stateKey
+
+        compactSchedule.applyOption(problem.levels(0)(1), 0)
+        compactSchedule.undoOption(problem.levels(0)(1), 0)
+
+        compactSchedule.stateKey shouldBe keyBefore
+      }
+    }
+  }
+
+  "isApplicable" when {
+    "every level changes its own cells" should {
+      "be true" in {
+        TranspositionTable.isApplicable(compile(personLevels)) shouldBe true
+      }
+    }
+    "two levels change the same cell" should {
+      "be false" in {
+        val levels = List(personLevels.head, personLevels.head)
+
+        TranspositionTable.isApplicable(compile(levels)) shouldBe false
+      }
+    }
+  }
+
+  "searchBestScheduleBranchAndBound" when {
+    "paths give persons the same costs" should {
+      "find the same score as the exhaustive search" in {
+        val optionsList = ScheduleSearcherOnlyPersonVariable.getOptionsList(taskList, personList, 30, 2)
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 2, DateTime.now())
+
+        val (_, expectedScore) = ScheduleSearcherOnlyPersonVariable.searchBestScheduleLazily(optionsList,
+          defaultSchedule, schedule => Schedule.calculateScore(schedule, personList))
+        val result = ScheduleSearcherOnlyPersonVariable.searchBestScheduleBranchAndBound(optionsList,
+          defaultSchedule, CostFunction.PersonCosts(personList))
+
+        result.score shouldBe expectedScore
+        Schedule.calculateScore(result.schedule, personList) shouldBe expectedScore
+      }
+    }
+  }
+}
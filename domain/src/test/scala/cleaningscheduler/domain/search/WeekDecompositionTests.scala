@@ -0,0 +1,88 @@
+package cleaningscheduler.domain.search
+
+import cleaningscheduler.domain.scheduler.MaxCostsPerPersonScheduler
+import cleaningscheduler.domain.{Person, Schedule, Task}
+import com.github.nscala_time.time.Imports.DateTime
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.ForkJoinPool
+
+class WeekDecompositionTests extends AnyWordSpec with Matchers {
+  val person1: Person = Person("PersonA", Map(30 -> 30, 31 -> 0, 32 -> 30, 33 -> 40))
+  val person2: Person = Person("PersonB", Map(30 -> 0, 31 -> 30, 32 -> 0, 33 -> 20))
+  val personList: List[Person] = List(person1, person2)
+  val task1: Task = Task("task1", 30, person1, false, 29, true, 1, 1)
+  val task2: Task = Task("task2", 20, person2, false, 28, true, 2, 2)
+  val taskList: List[Task] = List(task1, task2)
+
+  "canDecompose" when {
+    "every task has fixed weeks and the score adds up weeks" should {
+      "be true" in {
+        WeekDecomposition.canDecompose(taskList, personList, 30, 4, false,
+          CostFunction.PersonCosts(personList)) shouldBe true
+      }
+    }
+    "the score is balanced" should {
+      "be false" in {
+        WeekDecomposition.canDecompose(taskList, personList, 30, 4, false,
+          CostFunction.BalancedPersonCosts(personList)) shouldBe false
+      }
+    }
+    "a task can start in more than one week" should {
+      "be false" in {
+        val task3 = Task("task3", 20, person2, false, 28, true, 2, 3)
+
+        WeekDecomposition.canDecompose(List(task1, task3), personList, 30, 4, false,
+          CostFunction.PersonCosts(personList)) shouldBe false
+      }
+    }
+  }
+
+  "searchByWeek" when {
+    "given fixed weeks" should {
+      "find the same score as the search over all options" in {
+        val defaultSchedule = Schedule.defaultSchedule(taskList, 30, 4, DateTime.now())
+        val optionsList = ScheduleSearcher.getOptionsList(taskList, personList, 30, 4, false, false)
+        val expected = ScheduleSearcher.searchBestScheduleBranchAndBound(optionsList, defaultSchedule,
+          CostFunction.PersonCosts(personList))
+
+        val result = WeekDecomposition.searchByWeek(defaultSchedule, taskList, personList,
+          CostFunction.PersonCosts(personList), DomainPruning.exact, new ForkJoinPool(2))
+
+        result.score shouldBe expected.score
+        Schedule.calculateScore(result.schedule, personList) shouldBe result.score
+        result.schedule.weekList.map(_.weekNumber) shouldBe List(30, 31, 32, 33)
+        result.isComplete shouldBe true
+      }
+    }
+    "the schedule is searched quickly" should {
+      "finish a week with many tasks and persons quickly" in {
+        val manyPersons = (1 to 12).map(number => Person("Person" + number, Map(30 -> 100))).toList
+        val manyTasks = (1 to 12).map(number =>
+          Task("task" + number, 10, manyPersons(number - 1), false, 29, true, 1, 1)).toList
+        WeekDecomposition.canDecompose(manyTasks, manyPersons, 30, 1, false,
+          CostFunction.PersonCosts(manyPersons)) shouldBe true
+
+        val start = System.nanoTime()
+        val (schedule, isProvenOptimal) = MaxCostsPerPersonScheduler.searchWithCostFunction(manyPersons,
+          manyTasks, 30, 1, false, CostFunction.PersonCosts(manyPersons), new ForkJoinPool(1), None)
+
+        (System.nanoTime() - start) / 1_000_000 should be < 5_000L
+        schedule.weekList.head.taskAssignment.keySet shouldBe manyTasks.toSet
+        isProvenOptimal shouldBe false
+      }
+    }
+  }
+
+  "capCandidates" when {
+    "the candidates have more combinations than allowed" should {
+      "drop the worst ranked candidates of the largest lists" in {
+        val candidates = List(List(person1, person2), List(person2, person1), List(person1))
+
+        WeekDecomposition.capCandidates(candidates, 2) shouldBe List(List(person1), List(person2, person1),
+          List(person1))
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package cleaningscheduler.domain.search
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class WeekSequenceGeneratorTests extends AnyWordSpec with Matchers {
+  "repeatedSequences" when {
+    "given the same problem for another start week" should {
+      "return the same sequences shifted to that week" in {
+        val sequencesAt30 = WeekSequenceGenerator.repeatedSequences(false, 29, 2, 4, 30, 8, true)
+        val sequencesAt10 = WeekSequenceGenerator.repeatedSequences(false, 9, 2, 4, 10, 8, true)
+
+        sequencesAt10.map(_.map(_ + 20)) shouldBe sequencesAt30
+      }
+    }
+    "given a wide interval on a long schedule" should {
+      "not return any sequence twice" in {
+        val sequences = WeekSequenceGenerator.repeatedSequences(true, 1, 2, 5, 1, 16, true)
+
+        sequences.distinct shouldBe sequences
+        sequences.foreach { sequence =>
+          sequence.head shouldBe 1
+          sequence.zip(sequence.tail).foreach((week, next) => (next - week) should (be >= 2 and be <= 5))
+          sequence.last + 5 should be >= 17
+        }
+      }
+    }
+    "the interval is not variable" should {
+      "only step with the minimal interval" in {
+        val sequences = WeekSequenceGenerator.repeatedSequences(true, 1, 2, 5, 30, 6, false)
+
+        sequences shouldBe Seq(Seq(30, 32, 34))
+      }
+    }
+    "the schedule is empty" should {
+      "return a single empty sequence" in {
+        WeekSequenceGenerator.repeatedSequences(true, 1, 2, 5, 30, 0, true) shouldBe Seq(Seq())
+      }
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package cleaningscheduler.persistence;
+
+import cleaningscheduler.domain.IPerson;
+import cleaningscheduler.domain.ISchedule;
+import cleaningscheduler.domain.ITask;
+import cleaningscheduler.persistence.exceptions.DeleteNotAllowedException;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Keeps people, tasks and recently read schedules of another repository in memory, so
+// reads that are repeated on every request don't reach the database. Every write goes
+// to the repository and drops exactly the cached data that it can change: tasks hold
+// their preferred person and schedules hold tasks and persons, so changing a person or
+// task also drops the schedules. Schedules are kept by the instant they were created,
+// the least recently used one is dropped when more than scheduleCapacity are kept.
+public class CachingRepository implements ISchedulerRepository {
+    private static final int defaultScheduleCapacity = 64;
+
+    private final ISchedulerRepository repository;
+    private final int scheduleCapacity;
+    private final CachedValue<List<IPerson>> people = new CachedValue<>();
+    private final CachedValue<List<ITask>> tasks = new CachedValue<>();
+    private final CachedValue<List<ISchedule>> allSchedules = new CachedValue<>();
+    private final Map<Long, ISchedule> schedules;
+    private long scheduleVersion = 0;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingRepository(ISchedulerRepository repository) {
+        this(repository, defaultScheduleCapacity);
+    }
+
+    public CachingRepository(ISchedulerRepository repository, int scheduleCapacity) {
+        if (scheduleCapacity < 1) {
+            throw new IllegalArgumentException("scheduleCapacity should be at least 1");
+        }
+        this.repository = repository;
+        this.scheduleCapacity = scheduleCapacity;
+        this.schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ISchedule> eldest) {
+                boolean isEvicted = size() > CachingRepository.this.scheduleCapacity;
+                if (isEvicted) {
+                    evictions.increment();
+                }
+                return isEvicted;
+            }
+        };
+    }
+
+    public CacheStats getStats() {
+        int cachedSchedules;
+        synchronized (schedules) {
+            cachedSchedules = schedules.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), cachedSchedules);
+    }
+
+    // Drops everything, for when the data was changed without going through this repository
+    public void invalidateAll() {
+        people.invalidate();
+        tasks.invalidate();
+        invalidateSchedules();
+    }
+
+    @Override
+    public void deletePerson(String name) throws DeleteNotAllowedException {
+        try {
+            repository.deletePerson(name);
+        } finally {
+            people.invalidate();
+        }
+    }
+
+    @Override
+    public void deleteTask(String name) throws DeleteNotAllowedException {
+        try {
+            repository.deleteTask(name);
+        } finally {
+            tasks.invalidate();
+        }
+    }
+
+    @Override
+    public void deleteSchedule(DateTime createdAt) {
+        try {
+            repository.deleteSchedule(createdAt);
+        } finally {
+            invalidateSchedules();
+        }
+    }
+
+    @Override
+    public void save(String personName, Map<Integer, Integer> availabilityAssignment) {
+        try {
+            repository.save(personName, availabilityAssignment);
+        } finally {
+            people.invalidate();
+        }
+    }
+
+    @Override
+    public void save(String taskName, int costs, String personName, boolean isPreferredFixed, int lastDoneAt,
+                     boolean isRepeated, int minRepeatInterval, int maxRepeatInterval) {
+        try {
+            repository.save(taskName, costs, personName, isPreferredFixed, lastDoneAt, isRepeated,
+                    minRepeatInterval, maxRepeatInterval);
+        } finally {
+            tasks.invalidate();
+        }
+    }
+
+    @Override
+    public void save(ISchedule schedule) {
+        try {
+            repository.save(schedule);
+        } finally {
+            invalidateSchedules();
+        }
+    }
+
+    @Override
+    public void changePerson(String personName, String newPersonName, Map<Integer, Integer> availabilityAssignment) {
+        try {
+            repository.changePerson(personName, newPersonName, availabilityAssignment);
+        } finally {
+            people.invalidate();
+            tasks.invalidate();
+            invalidateSchedules();
+        }
+    }
+
+    @Override
+    public void changeTask(String taskName, String newTaskName, int costs, String personName,
+                           boolean isPreferredFixed, int lastDoneAt, boolean isRepeated, int minRepeatInterval,
+                           int maxRepeatInterval) {
+        try {
+            repository.changeTask(taskName, newTaskName, costs, personName, isPreferredFixed, lastDoneAt,
+                    isRepeated, minRepeatInterval, maxRepeatInterval);
+        } finally {
+            tasks.invalidate();
+            invalidateSchedules();
+        }
+    }
+
+    // A name that isn't among the cached people is asked from the repository, which
+    // decides what an unknown name gives
+    @Override
+    public IPerson getPerson(String name) {
+        return getAllPeople().stream()
+                .filter(person -> person.name().equals(name))
+                .findFirst()
+                .orElseGet(() -> repository.getPerson(name));
+    }
+
+    @Override
+    public ITask getTask(String name) {
+        return getAllTasks().stream()
+                .filter(task -> task.name().equals(name))
+                .findFirst()
+                .orElseGet(() -> repository.getTask(name));
+    }
+
+    @Override
+    public ISchedule getSchedule(DateTime createdAt) {
+        long key = createdAt.getMillis();
+        long version;
+        synchronized (schedules) {
+            ISchedule schedule = schedules.get(key);
+            if (schedule != null) {
+                hits.increment();
+                return schedule;
+            }
+            version = scheduleVersion;
+        }
+        misses.increment();
+
+        ISchedule schedule = repository.getSchedule(createdAt);
+        synchronized (schedules) {
+            if (schedule != null && version == scheduleVersion) {
+                schedules.put(key, schedule);
+            }
+        }
+        return schedule;
+    }
+
+    @Override
+    public List<IPerson> getAllPeople() {
+        return people.get(() -> Collections.unmodifiableList(new ArrayList<>(repository.getAllPeople())));
+    }
+
+    @Override
+    public List<ITask> getAllTasks() {
+        return tasks.get(() -> Collections.unmodifiableList(new ArrayList<>(repository.getAllTasks())));
+    }
+
+    // The whole list is only kept when it fits in scheduleCapacity, so the cache stays bounded
+    @Override
+    public List<ISchedule> getAllSchedules() {
+        List<ISchedule> cached = allSchedules.getIfPresent();
+        if (cached != null) {
+            return cached;
+        }
+        long version = allSchedules.version();
+        List<ISchedule> scheduleList = Collections.unmodifiableList(new ArrayList<>(repository.getAllSchedules()));
+        if (scheduleList.size() <= scheduleCapacity) {
+            allSchedules.putIfUnchanged(version, scheduleList);
+        }
+        return scheduleList;
+    }
+
+    // Saving or deleting a schedule drops all of them: the callers parse createdAt in
+    // different zones, so the instant of a write doesn't always match the cached key
+    private void invalidateSchedules() {
+        allSchedules.invalidate();
+        synchronized (schedules) {
+            scheduleVersion++;
+            schedules.clear();
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long scheduleEvictions, int cachedSchedules) {
+    }
+
+    // A value that is loaded on first use. The version goes up with every invalidation, so
+    // a value that was loaded while a write happened isn't kept.
+    private final class CachedValue<T> {
+        private T value = null;
+        private long version = 0;
+
+        private T get(Supplier<T> loader) {
+            T cached = getIfPresent();
+            if (cached != null) {
+                return cached;
+            }
+            long loadedVersion = version();
+            T loaded = loader.get();
+            putIfUnchanged(loadedVersion, loaded);
+            return loaded;
+        }
+
+        private synchronized T getIfPresent() {
+            if (value == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return value;
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized void putIfUnchanged(long loadedVersion, T loaded) {
+            if (loadedVersion == version) {
+                value = loaded;
+            }
+        }
+
+        private synchronized void invalidate() {
+            version++;
+            value = null;
+        }
+    }
+}
@@ -3,97 +3,477 @@ package cleaningscheduler.persistence;
 import cleaningscheduler.domain.IPerson;
 import cleaningscheduler.domain.ISchedule;
 import cleaningscheduler.domain.ITask;
+import cleaningscheduler.domain.IWeek;
+import cleaningscheduler.domain.SchedulerFactory;
+import cleaningscheduler.persistence.VanillaSQL.ScalaListBuilder;
+import cleaningscheduler.persistence.VanillaSQL.ScalaMapBuilder;
 import cleaningscheduler.persistence.exceptions.DeleteNotAllowedException;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-public class InMemoryRepository{
-    HashMap<String, IPerson> personRepo = new HashMap<>();
-    HashMap<String, ITask> taskRepo = new HashMap<>();
-    HashMap<DateTime, ISchedule> scheduleRepo = new HashMap<>();
+// A repository without a database, for deployments without MySQL. All data lives in one
+// immutable state that every write replaces, so readers never block and never see half a
+// write. Writes are serialized. snapshot() gives a versioned view of people and tasks that
+// stays the same while a long search runs. Schedules are kept by the names of their tasks
+// and persons and are built from the current people and tasks when read, like the SQL
+// repository does, so changing a person or task also shows in the stored schedules.
+//
+// With a journal every write is appended to it as one line before it becomes visible, and
+// the journal is replayed on start. compactJournal() rewrites it to the current data.
+public class InMemoryRepository implements ISchedulerRepository, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(InMemoryRepository.class.getName());
 
-    public void deletePerson(String name) throws DeleteNotAllowedException {
-        boolean noDependentTasks = taskRepo.values().stream()
-                .anyMatch(task -> task.preferredAssignee().name().equals(name));
+    private final SchedulerFactory factory = new SchedulerFactory();
+    private final Object writeLock = new Object();
+    private final Path journal;
+    private FileChannel journalChannel;
+    private volatile State state = new State(new Snapshot(0, Map.of(), Map.of()),
+            Collections.emptyNavigableMap());
 
-        boolean noDependentSchedules = scheduleRepo.values().stream()
-                .anyMatch(schedule -> schedule.weekList()
-                        .exists(week -> week.getTaskAssignmentAsJava().values().stream()
-                                .anyMatch(assignedPerson -> assignedPerson.name().equals(name))));
+    public InMemoryRepository() {
+        this.journal = null;
+    }
 
-        if (noDependentTasks && noDependentSchedules) {
-            taskRepo.remove(name);
-        } else {
-            throw new DeleteNotAllowedException("There were schedules and/or tasks dependent on " + name);
+    public InMemoryRepository(Path journal) {
+        this.journal = journal;
+        try {
+            if (Files.exists(journal)) {
+                replay(Files.readString(journal, StandardCharsets.UTF_8));
+            }
+            journalChannel = openJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the journal " + journal, e);
         }
     }
 
-    public void deleteTask(String name) throws DeleteNotAllowedException {
-        boolean noDependentSchedules = scheduleRepo.values().stream()
-                .anyMatch(schedule -> schedule.weekList()
-                        .exists(week -> week.getTaskAssignmentAsJava()
-                                .keySet().stream()
-                                .anyMatch(task -> task.name().equals(name))));
+    public Snapshot snapshot() {
+        return state.snapshot();
+    }
 
-        if (noDependentSchedules) {
-            taskRepo.remove(name);
-        } else {
-            throw new DeleteNotAllowedException("There were schedules dependent on " + name);
-        }
+    // All people and tasks are in the snapshot, so reading them never needs a lock
+    public record Snapshot(long version, Map<String, IPerson> people, Map<String, ITask> tasks) {
     }
 
-    public void deleteSchedule(DateTime createdAt) {
-        scheduleRepo.remove(createdAt);
+    @Override
+    public void deletePerson(String name) throws DeleteNotAllowedException {
+        write("deletePerson", encode(name));
+    }
+
+    @Override
+    public void deleteTask(String name) throws DeleteNotAllowedException {
+        write("deleteTask", encode(name));
     }
 
-    public void save(IPerson person) {
-        personRepo.put(person.name(), person);
+    @Override
+    public void deleteSchedule(DateTime createdAt) {
+        write("deleteSchedule", Long.toString(createdAt.getMillis()));
     }
 
-    public void save(ITask task) {
-        taskRepo.put(task.name(), task);
+    @Override
+    public void save(String personName, Map<Integer, Integer> availabilityAssignment) {
+        write("person", encode(personName), encodeAvailability(availabilityAssignment));
     }
 
-    public void save(ISchedule schedule) {
-        scheduleRepo.put(schedule.createdAt(), schedule);
+    @Override
+    public void save(String taskName, int costs, String personName, boolean isPreferredFixed, int lastDoneAt,
+                     boolean isRepeated, int minRepeatInterval, int maxRepeatInterval) {
+        write("task", encode(taskName), encodeTask(costs, personName, isPreferredFixed, lastDoneAt, isRepeated,
+                minRepeatInterval, maxRepeatInterval));
     }
 
-    public void change(String name, IPerson person) {
-        personRepo.put(name, person);
+    @Override
+    public void save(ISchedule schedule) {
+        String weeks = schedule.weekListAsJava().stream()
+                .map(week -> week.weekNumber() + ":" + week.getTaskAssignmentAsJava().entrySet().stream()
+                        .map(assignment -> encode(assignment.getKey().name()) + "="
+                                + encode(assignment.getValue().name()))
+                        .collect(Collectors.joining(";")))
+                .collect(Collectors.joining("|"));
+        write("schedule", Long.toString(schedule.createdAt().getMillis()),
+                encode(schedule.createdAt().getZone().getID()), weeks);
     }
 
-    public void change(String name, ITask task) {
-        taskRepo.put(name, task);
+    @Override
+    public void changePerson(String personName, String newPersonName, Map<Integer, Integer> availabilityAssignment) {
+        write("changePerson", encode(personName), encode(newPersonName), encodeAvailability(availabilityAssignment));
     }
 
-    public void change(DateTime createdAt, ISchedule schedule) {
-        scheduleRepo.put(createdAt, schedule);
+    @Override
+    public void changeTask(String taskName, String newTaskName, int costs, String personName,
+                           boolean isPreferredFixed, int lastDoneAt, boolean isRepeated, int minRepeatInterval,
+                           int maxRepeatInterval) {
+        write("changeTask", encode(taskName), encode(newTaskName), encodeTask(costs, personName, isPreferredFixed,
+                lastDoneAt, isRepeated, minRepeatInterval, maxRepeatInterval));
     }
 
+    @Override
     public IPerson getPerson(String name) {
-        return personRepo.get(name);
+        return state.snapshot().people().get(name);
     }
 
+    @Override
     public ITask getTask(String name) {
-        return taskRepo.get(name);
+        return state.snapshot().tasks().get(name);
     }
 
+    @Override
     public ISchedule getSchedule(DateTime createdAt) {
-        return scheduleRepo.get(createdAt);
+        State current = state;
+        StoredSchedule schedule = current.schedules().get(createdAt.getMillis());
+        return schedule == null ? null : build(schedule, current.snapshot());
     }
 
+    @Override
     public List<IPerson> getAllPeople() {
-        return personRepo.values().stream().toList();
+        return List.copyOf(state.snapshot().people().values());
     }
 
+    @Override
     public List<ITask> getAllTasks() {
-        return taskRepo.values().stream().toList();
+        return List.copyOf(state.snapshot().tasks().values());
     }
 
+    // Newest first, like the SQL repository
+    @Override
     public List<ISchedule> getAllSchedules() {
-        return scheduleRepo.values().stream().toList();
+        State current = state;
+        return current.schedules().descendingMap().values().stream()
+                .map(schedule -> build(schedule, current.snapshot()))
+                .toList();
+    }
+
+    // Replaces the journal by one that only saves the current people, tasks and schedules
+    public void compactJournal() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            State current = state;
+            List<String> lines = new ArrayList<>();
+            current.snapshot().people().values().forEach(person -> lines.add(String.join(" ", "person",
+                    encode(person.name()), encodeAvailability(person.getAvailabilityAssignmentAsJavaMap()))));
+            current.snapshot().tasks().values().forEach(task -> lines.add(String.join(" ", "task",
+                    encode(task.name()), encodeTask(task.costs(), task.preferredAssignee().name(),
+                            task.isPreferredFixed(), task.lastDoneAt(), task.isRepeated(),
+                            task.minRepeatInterval(), task.maxRepeatInterval()))));
+            current.schedules().values().forEach(schedule -> lines.add(String.join(" ", "schedule",
+                    Long.toString(schedule.createdAt().getMillis()), encode(schedule.createdAt().getZone().getID()),
+                    schedule.weeks().stream()
+                            .map(week -> week.weekNumber() + ":" + week.assignment().entrySet().stream()
+                                    .map(assignment -> encode(assignment.getKey()) + "=" + encode(assignment.getValue()))
+                                    .collect(Collectors.joining(";")))
+                            .collect(Collectors.joining("|")))));
+
+            try {
+                Path compacted = journal.resolveSibling(journal.getFileName() + ".compacting");
+                Files.write(compacted, lines, StandardCharsets.UTF_8);
+                journalChannel.close();
+                try {
+                    Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    journalChannel = openJournal();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot compact the journal " + journal, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            try {
+                journalChannel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close the journal " + journal, e);
+            }
+        }
+    }
+
+    // Every write is a journal line that is applied to the current state. A write that
+    // isn't allowed throws before anything is journaled or published.
+    private void write(String... fields) {
+        String line = String.join(" ", fields);
+        synchronized (writeLock) {
+            State next = apply(state, line.split(" ", -1));
+            if (journal != null) {
+                appendToJournal(line);
+            }
+            state = next;
+        }
+    }
+
+    // A line that fails halfway is cut off again, so the next write doesn't continue it
+    private void appendToJournal(String line) {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            long length = journalChannel.size();
+            try {
+                while (buffer.hasRemaining()) {
+                    journalChannel.write(buffer);
+                }
+                journalChannel.force(false);
+            } catch (IOException e) {
+                try {
+                    journalChannel.truncate(length);
+                } catch (IOException truncateException) {
+                    e.addSuppressed(truncateException);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the journal " + journal, e);
+        }
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // A last line without a line end was cut off by a crash during its write. It is
+    // removed, so the next write starts on a line of its own.
+    private void replay(String content) throws IOException {
+        String complete = content.substring(0, content.lastIndexOf('\n') + 1);
+        if (complete.length() < content.length()) {
+            logger.warning("Removed the incomplete last line of the journal " + journal);
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(complete.getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+
+        List<String> lines = complete.lines().toList();
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                state = apply(state, lines.get(i).split(" ", -1));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Line " + (i + 1) + " of the journal " + journal +
+                        " can't be applied", e);
+            }
+        }
+    }
+
+    private State apply(State current, String[] record) {
+        Map<String, IPerson> people = current.snapshot().people();
+        Map<String, ITask> tasks = current.snapshot().tasks();
+        NavigableMap<Long, StoredSchedule> schedules = current.schedules();
+
+        switch (record[0]) {
+            case "person" -> {
+                people = new LinkedHashMap<>(people);
+                String name = decode(record[1]);
+                people.put(name, factory.createPerson(name, decodeAvailability(record[2])));
+            }
+            case "task" -> {
+                tasks = new LinkedHashMap<>(tasks);
+                String name = decode(record[1]);
+                tasks.put(name, decodeTask(name, record, 2, people));
+            }
+            case "schedule" -> {
+                schedules = new TreeMap<>(schedules);
+                long millis = Long.parseLong(record[1]);
+                DateTime createdAt = new DateTime(millis, DateTimeZone.forID(decode(record[2])));
+                schedules.put(millis, new StoredSchedule(createdAt, decodeWeeks(record[3], people, tasks)));
+            }
+            case "changePerson" -> {
+                String name = decode(record[1]);
+                String newName = decode(record[2]);
+                if (!people.containsKey(name)) {
+                    throw new IllegalArgumentException("There is no person " + name);
+                }
+                people = new LinkedHashMap<>(people);
+                people.remove(name);
+                IPerson person = factory.createPerson(newName, decodeAvailability(record[3]));
+                people.put(newName, person);
+
+                tasks = new LinkedHashMap<>(tasks);
+                tasks.replaceAll((taskName, task) -> task.preferredAssignee().name().equals(name)
+                        ? factory.createTask(task.name(), task.costs(), person, task.isPreferredFixed(),
+                        task.lastDoneAt(), task.isRepeated(), task.minRepeatInterval(), task.maxRepeatInterval())
+                        : task);
+                schedules = renameInSchedules(schedules, name, newName, false);
+            }
+            case "changeTask" -> {
+                String name = decode(record[1]);
+                String newName = decode(record[2]);
+                if (!tasks.containsKey(name)) {
+                    throw new IllegalArgumentException("There is no task " + name);
+                }
+                ITask task = decodeTask(newName, record, 3, people);
+                tasks = new LinkedHashMap<>(tasks);
+                tasks.remove(name);
+                tasks.put(newName, task);
+                schedules = renameInSchedules(schedules, name, newName, true);
+            }
+            case "deletePerson" -> {
+                String name = decode(record[1]);
+                boolean hasDependentTasks = tasks.values().stream()
+                        .anyMatch(task -> task.preferredAssignee().name().equals(name));
+                boolean hasDependentSchedules = schedules.values().stream()
+                        .anyMatch(schedule -> schedule.weeks().stream()
+                                .anyMatch(week -> week.assignment().containsValue(name)));
+                if (hasDependentTasks || hasDependentSchedules) {
+                    throw new DeleteNotAllowedException("Some schedule or task is dependent on " + name);
+                }
+                people = new LinkedHashMap<>(people);
+                people.remove(name);
+            }
+            case "deleteTask" -> {
+                String name = decode(record[1]);
+                boolean hasDependentSchedules = schedules.values().stream()
+                        .anyMatch(schedule -> schedule.weeks().stream()
+                                .anyMatch(week -> week.assignment().containsKey(name)));
+                if (hasDependentSchedules) {
+                    throw new DeleteNotAllowedException("Some schedule is dependent on " + name);
+                }
+                tasks = new LinkedHashMap<>(tasks);
+                tasks.remove(name);
+            }
+            case "deleteSchedule" -> {
+                schedules = new TreeMap<>(schedules);
+                schedules.remove(Long.parseLong(record[1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown journal record " + record[0]);
+        }
+        // only the maps that were copied for this write still need to be made read only
+        return new State(new Snapshot(current.snapshot().version() + 1,
+                people == current.snapshot().people() ? people : Collections.unmodifiableMap(people),
+                tasks == current.snapshot().tasks() ? tasks : Collections.unmodifiableMap(tasks)),
+                schedules == current.schedules() ? schedules : Collections.unmodifiableNavigableMap(schedules));
+    }
+
+    private NavigableMap<Long, StoredSchedule> renameInSchedules(NavigableMap<Long, StoredSchedule> schedules,
+                                                                 String name, String newName, boolean isTask) {
+        NavigableMap<Long, StoredSchedule> renamed = new TreeMap<>();
+        schedules.forEach((millis, schedule) -> renamed.put(millis, new StoredSchedule(schedule.createdAt(),
+                schedule.weeks().stream().map(week -> {
+                    Map<String, String> assignment = new LinkedHashMap<>();
+                    week.assignment().forEach((taskName, personName) -> {
+                        if (isTask && taskName.equals(name)) {
+                            assignment.put(newName, personName);
+                        } else if (!isTask && personName.equals(name)) {
+                            assignment.put(taskName, newName);
+                        } else {
+                            assignment.put(taskName, personName);
+                        }
+                    });
+                    return new StoredWeek(week.weekNumber(), assignment);
+                }).toList())));
+        return renamed;
+    }
+
+    private ISchedule build(StoredSchedule schedule, Snapshot snapshot) {
+        ScalaListBuilder<IWeek> weekList = new ScalaListBuilder<>();
+        for (StoredWeek week : schedule.weeks()) {
+            ScalaMapBuilder<ITask, IPerson> taskAssignment = new ScalaMapBuilder<>();
+            week.assignment().forEach((taskName, personName) ->
+                    taskAssignment.update(snapshot.tasks().get(taskName), snapshot.people().get(personName)));
+            weekList.add(factory.createWeek(week.weekNumber(), taskAssignment.getMap()));
+        }
+        return factory.createSchedule(schedule.createdAt(), weekList.getList());
+    }
+
+    private static String encodeTask(int costs, String personName, boolean isPreferredFixed, int lastDoneAt,
+                                     boolean isRepeated, int minRepeatInterval, int maxRepeatInterval) {
+        return String.join(" ", Integer.toString(costs), encode(personName), Boolean.toString(isPreferredFixed),
+                Integer.toString(lastDoneAt), Boolean.toString(isRepeated), Integer.toString(minRepeatInterval),
+                Integer.toString(maxRepeatInterval));
+    }
+
+    private ITask decodeTask(String name, String[] record, int first, Map<String, IPerson> people) {
+        String personName = decode(record[first + 1]);
+        IPerson person = people.get(personName);
+        if (person == null) {
+            throw new IllegalArgumentException("There is no person " + personName);
+        }
+        return factory.createTask(name, Integer.parseInt(record[first]), person,
+                Boolean.parseBoolean(record[first + 2]), Integer.parseInt(record[first + 3]),
+                Boolean.parseBoolean(record[first + 4]), Integer.parseInt(record[first + 5]),
+                Integer.parseInt(record[first + 6]));
+    }
+
+    private static String encodeAvailability(Map<Integer, Integer> availabilityAssignment) {
+        return availabilityAssignment.entrySet().stream()
+                .map(availability -> availability.getKey() + ":" + availability.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static scala.collection.immutable.Map<Object, Object> decodeAvailability(String field) {
+        ScalaMapBuilder<Object, Object> availabilityAssignment = new ScalaMapBuilder<>();
+        if (!field.isEmpty()) {
+            for (String availability : field.split(",")) {
+                String[] weekAndMinutes = availability.split(":");
+                availabilityAssignment.update(Integer.parseInt(weekAndMinutes[0]),
+                        Integer.parseInt(weekAndMinutes[1]));
+            }
+        }
+        return availabilityAssignment.getMap();
+    }
+
+    private static List<StoredWeek> decodeWeeks(String field, Map<String, IPerson> people,
+                                                Map<String, ITask> tasks) {
+        List<StoredWeek> weeks = new ArrayList<>();
+        if (field.isEmpty()) {
+            return weeks;
+        }
+        for (String week : field.split("\\|")) {
+            String[] numberAndAssignment = week.split(":", -1);
+            Map<String, String> assignment = new LinkedHashMap<>();
+            if (!numberAndAssignment[1].isEmpty()) {
+                for (String taskAndPerson : numberAndAssignment[1].split(";")) {
+                    String[] names = taskAndPerson.split("=");
+                    String taskName = decode(names[0]);
+                    String personName = decode(names[1]);
+                    if (!tasks.containsKey(taskName) || !people.containsKey(personName)) {
+                        throw new IllegalArgumentException("The schedule has an unknown task or person");
+                    }
+                    assignment.put(taskName, personName);
+                }
+            }
+            weeks.add(new StoredWeek(Integer.parseInt(numberAndAssignment[0]), assignment));
+        }
+        return weeks;
+    }
+
+    // Names are URL encoded, so they don't contain the separators of a journal line
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String field) {
+        return URLDecoder.decode(field, StandardCharsets.UTF_8);
+    }
+
+    private record State(Snapshot snapshot, NavigableMap<Long, StoredSchedule> schedules) {
+    }
+
+    private record StoredSchedule(DateTime createdAt, List<StoredWeek> weeks) {
+        private StoredSchedule {
+            weeks = List.copyOf(weeks);
+        }
+    }
+
+    private record StoredWeek(int weekNumber, Map<String, String> assignment) {
+        private StoredWeek {
+            assignment = Collections.unmodifiableMap(assignment);
+        }
     }
 }
@@ -0,0 +1,468 @@
+package cleaningscheduler.persistence.VanillaSQL;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps database connections open between repository calls, so only the first call pays
+// for the TCP and authentication handshake. A borrowed connection is a handle on a pooled
+// one, closing the handle gives the connection back with the settings it was opened with.
+// Every pooled connection keeps its prepared statements by SQL, closing a cached statement
+// only clears its parameters.
+// A background task closes idle connections above minSize, opens connections up to
+// minSize and warns about connections that are borrowed for longer than leakThresholdMillis.
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+    private static final int validationTimeoutSeconds = 2;
+
+    private final ConnectionFactory factory;
+    private final PoolSettings settings;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean isClosed = false;
+
+    public ConnectionPool(ConnectionFactory factory, PoolSettings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, settings.maintenanceIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (isClosed) {
+            throw new SQLException("The connection pool is closed");
+        }
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.maxWaitMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("No connection available within " + settings.maxWaitMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - waitStart;
+        borrowCount.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        try {
+            PooledConnection pooledConnection = takeIdleOrOpen();
+            pooledConnection.borrowedAt = System.currentTimeMillis();
+            pooledConnection.borrowedBy = settings.leakThresholdMillis() > 0 ? new Exception("Borrowed here") : null;
+            pooledConnection.isLeakReported = false;
+            activeConnections.add(pooledConnection);
+            return pooledConnection.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        int idle;
+        synchronized (idleConnections) {
+            idle = idleConnections.size();
+        }
+        return new PoolStats(
+                activeConnections.size(),
+                idle,
+                borrows,
+                borrows == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / borrows,
+                maxWaitNanos.get() / 1_000_000.0,
+                leakCount.sum(),
+                statementCacheHits.sum(),
+                statementCacheMisses.sum());
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        maintenance.shutdownNow();
+        synchronized (idleConnections) {
+            idleConnections.forEach(PooledConnection::closeQuietly);
+            idleConnections.clear();
+        }
+    }
+
+    // Idle connections are validated when they were unused for longer than validationIntervalMillis
+    private PooledConnection takeIdleOrOpen() throws SQLException {
+        while (true) {
+            PooledConnection pooledConnection;
+            synchronized (idleConnections) {
+                pooledConnection = idleConnections.pollFirst();
+            }
+            if (pooledConnection == null) {
+                return new PooledConnection(factory.open());
+            }
+            boolean needsValidation =
+                    System.currentTimeMillis() - pooledConnection.lastUsedAt > settings.validationIntervalMillis();
+            if (!needsValidation || isValid(pooledConnection)) {
+                return pooledConnection;
+            }
+            pooledConnection.closeQuietly();
+        }
+    }
+
+    private boolean isValid(PooledConnection pooledConnection) {
+        try {
+            return pooledConnection.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // A connection with an open transaction is rolled back, one that can't be reset is closed
+    private void giveBack(PooledConnection pooledConnection) {
+        activeConnections.remove(pooledConnection);
+        try {
+            boolean isReusable = !isClosed && !pooledConnection.connection.isClosed();
+            if (isReusable) {
+                pooledConnection.reset();
+                pooledConnection.releaseStatements();
+                pooledConnection.lastUsedAt = System.currentTimeMillis();
+                synchronized (idleConnections) {
+                    idleConnections.addFirst(pooledConnection);
+                }
+            } else {
+                pooledConnection.closeQuietly();
+            }
+        } catch (SQLException e) {
+            pooledConnection.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void maintain() {
+        try {
+            long now = System.currentTimeMillis();
+            for (PooledConnection pooledConnection : activeConnections) {
+                if (settings.leakThresholdMillis() > 0 && !pooledConnection.isLeakReported
+                        && now - pooledConnection.borrowedAt > settings.leakThresholdMillis()) {
+                    pooledConnection.isLeakReported = true;
+                    leakCount.increment();
+                    logger.log(Level.WARNING, "A connection was borrowed " + (now - pooledConnection.borrowedAt) +
+                            " ms ago and not given back", pooledConnection.borrowedBy);
+                }
+            }
+
+            List<PooledConnection> expired = new ArrayList<>();
+            synchronized (idleConnections) {
+                // the least recently used connections are at the end
+                Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+                while (oldestFirst.hasNext() && idleConnections.size() - expired.size() > settings.minSize()) {
+                    PooledConnection pooledConnection = oldestFirst.next();
+                    if (now - pooledConnection.lastUsedAt > settings.idleTimeoutMillis()) {
+                        expired.add(pooledConnection);
+                    }
+                }
+                idleConnections.removeAll(expired);
+            }
+            expired.forEach(PooledConnection::closeQuietly);
+
+            while (!isClosed && needsMoreIdleConnections()) {
+                PooledConnection pooledConnection = new PooledConnection(factory.open());
+                synchronized (idleConnections) {
+                    idleConnections.addLast(pooledConnection);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.log(Level.FINE, "Connection pool maintenance failed", e);
+        }
+    }
+
+    private boolean needsMoreIdleConnections() {
+        synchronized (idleConnections) {
+            return activeConnections.size() + idleConnections.size() < settings.minSize();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    // All times are in milliseconds, a leakThresholdMillis of 0 turns leak detection off
+    // and a statementCacheSize of 0 turns the statement cache off
+    public record PoolSettings(int minSize,
+                               int maxSize,
+                               long maxWaitMillis,
+                               long validationIntervalMillis,
+                               long idleTimeoutMillis,
+                               long leakThresholdMillis,
+                               int statementCacheSize,
+                               long maintenanceIntervalMillis) {
+        public PoolSettings {
+            if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                throw new IllegalArgumentException("The pool needs 0 <= minSize <= maxSize and maxSize >= 1");
+            }
+            if (maintenanceIntervalMillis < 1) {
+                throw new IllegalArgumentException("maintenanceIntervalMillis should be at least 1");
+            }
+        }
+
+        public static PoolSettings defaults() {
+            return new PoolSettings(2, 10, 30_000, 30_000, 600_000, 60_000, 50, 5_000);
+        }
+    }
+
+    // Wait times are in milliseconds
+    public record PoolStats(int activeConnections,
+                            int idleConnections,
+                            long borrowCount,
+                            double averageWaitMillis,
+                            double maxWaitMillis,
+                            long leakCount,
+                            long statementCacheHits,
+                            long statementCacheMisses) {
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private final boolean initialAutoCommit;
+        private final boolean initialReadOnly;
+        private final int initialTransactionIsolation;
+        private final String initialCatalog;
+        private final Map<String, CachedStatement> statements;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Exception borrowedBy;
+        private volatile boolean isLeakReported;
+
+        private PooledConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            try {
+                this.initialAutoCommit = connection.getAutoCommit();
+                this.initialReadOnly = connection.isReadOnly();
+                this.initialTransactionIsolation = connection.getTransactionIsolation();
+                this.initialCatalog = connection.getCatalog();
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    boolean isEvicted = size() > settings.statementCacheSize() && !eldest.getValue().isInUse;
+                    if (isEvicted) {
+                        eldest.getValue().closeQuietly();
+                    }
+                    return isEvicted;
+                }
+            };
+        }
+
+        private Connection newHandle() {
+            ConnectionHandle handle = new ConnectionHandle(this);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handle);
+        }
+
+        // Undoes what a borrower changed, so the next one gets the connection as it was opened
+        private void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            if (connection.getAutoCommit() != initialAutoCommit) {
+                connection.setAutoCommit(initialAutoCommit);
+            }
+            if (connection.isReadOnly() != initialReadOnly) {
+                connection.setReadOnly(initialReadOnly);
+            }
+            if (connection.getTransactionIsolation() != initialTransactionIsolation) {
+                connection.setTransactionIsolation(initialTransactionIsolation);
+            }
+            if (initialCatalog != null && !initialCatalog.equals(connection.getCatalog())) {
+                connection.setCatalog(initialCatalog);
+            }
+            connection.clearWarnings();
+        }
+
+        // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached.
+        // A statement that is still in use when the same SQL is prepared again isn't shared.
+        // The handle of a cached statement gives the borrowed connection handle as its connection.
+        private PreparedStatement prepare(String sql, Integer autoGeneratedKeys, Connection handle)
+                throws SQLException {
+            if (settings.statementCacheSize() == 0) {
+                return prepareUncached(sql, autoGeneratedKeys);
+            }
+            String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + ":" + sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.isInUse) {
+                return prepareUncached(sql, autoGeneratedKeys);
+            }
+            if (cached == null) {
+                statementCacheMisses.increment();
+                cached = new CachedStatement(prepareUncached(sql, autoGeneratedKeys));
+                statements.put(key, cached);
+            } else {
+                statementCacheHits.increment();
+            }
+            cached.isInUse = true;
+            return cached.newHandle(handle);
+        }
+
+        private PreparedStatement prepareUncached(String sql, Integer autoGeneratedKeys) throws SQLException {
+            return autoGeneratedKeys == null ? connection.prepareStatement(sql)
+                    : connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        private void releaseStatements() throws SQLException {
+            for (CachedStatement cached : statements.values()) {
+                if (cached.isInUse) {
+                    cached.release();
+                }
+            }
+        }
+
+        private void closeQuietly() {
+            statements.values().forEach(CachedStatement::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Closing a pooled connection failed", e);
+            }
+        }
+    }
+
+    // Every borrow gets its own handle, so a handle that was closed can't reach the
+    // connection after it was given to someone else
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooledConnection;
+        private boolean isHandleClosed = false;
+
+        private ConnectionHandle(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!isHandleClosed) {
+                        isHandleClosed = true;
+                        giveBack(pooledConnection);
+                    }
+                    return null;
+                case "isClosed":
+                    return isHandleClosed || pooledConnection.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooledConnection.connection;
+                default:
+                    break;
+            }
+            if (isHandleClosed) {
+                throw new SQLException("The connection was given back to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return pooledConnection.prepare((String) args[0], null, (Connection) proxy);
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 2
+                    && method.getParameterTypes()[1] == int.class) {
+                return pooledConnection.prepare((String) args[0], (Integer) args[1], (Connection) proxy);
+            }
+            return ConnectionPool.invoke(pooledConnection.connection, method, args);
+        }
+    }
+
+    // Closing a handle of a cached statement clears it for the next user instead. The
+    // generation goes up with every release, which closes the handles of earlier users.
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private volatile boolean isInUse = false;
+        private volatile int generation = 0;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement newHandle(Connection connectionHandle) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new InvocationHandler() {
+                        private final int handleGeneration = generation;
+
+                        private boolean isHandleClosed() {
+                            return handleGeneration != generation;
+                        }
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            switch (method.getName()) {
+                                case "close":
+                                    if (!isHandleClosed()) {
+                                        release();
+                                    }
+                                    return null;
+                                case "isClosed":
+                                    return isHandleClosed() || statement.isClosed();
+                                case "equals":
+                                    return proxy == args[0];
+                                case "hashCode":
+                                    return System.identityHashCode(proxy);
+                                default:
+                                    break;
+                            }
+                            if (isHandleClosed()) {
+                                throw new SQLException("The statement was closed");
+                            }
+                            if (method.getName().equals("getConnection")) {
+                                return connectionHandle;
+                            }
+                            return ConnectionPool.invoke(statement, method, args);
+                        }
+                    });
+        }
+
+        private void release() throws SQLException {
+            generation++;
+            isInUse = false;
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Closing a cached statement failed", e);
+            }
+        }
+    }
+}
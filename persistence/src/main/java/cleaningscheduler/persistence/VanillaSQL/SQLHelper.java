@@ -3,12 +3,39 @@ package cleaningscheduler.persistence.VanillaSQL;
 import java.sql.*;
 
 public class SQLHelper {
-    private static final String url = "jdbc:mysql://localhost:3306/cleaning_scheduler";
+    // rewriteBatchedStatements lets the driver send a batch of inserts as one multi-row insert
+    private static final String url = "jdbc:mysql://localhost:3306/cleaning_scheduler?rewriteBatchedStatements=true";
     private static final String username = "bo";
     private static final String password = "password";
 
+    // The pool is only created on first use, so nothing connects before a repository is used.
+    // Its sizes and times can be changed with the cleaningscheduler.pool.* system properties.
+    private static class PoolHolder {
+        private static final ConnectionPool pool = new ConnectionPool(
+                () -> DriverManager.getConnection(url, username, password), poolSettings());
+
+        private static ConnectionPool.PoolSettings poolSettings() {
+            ConnectionPool.PoolSettings defaults = ConnectionPool.PoolSettings.defaults();
+            return new ConnectionPool.PoolSettings(
+                    Integer.getInteger("cleaningscheduler.pool.minSize", defaults.minSize()),
+                    Integer.getInteger("cleaningscheduler.pool.maxSize", defaults.maxSize()),
+                    Long.getLong("cleaningscheduler.pool.maxWaitMillis", defaults.maxWaitMillis()),
+                    Long.getLong("cleaningscheduler.pool.validationIntervalMillis",
+                            defaults.validationIntervalMillis()),
+                    Long.getLong("cleaningscheduler.pool.idleTimeoutMillis", defaults.idleTimeoutMillis()),
+                    Long.getLong("cleaningscheduler.pool.leakThresholdMillis", defaults.leakThresholdMillis()),
+                    Integer.getInteger("cleaningscheduler.pool.statementCacheSize", defaults.statementCacheSize()),
+                    Long.getLong("cleaningscheduler.pool.maintenanceIntervalMillis",
+                            defaults.maintenanceIntervalMillis()));
+        }
+    }
+
     protected static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        return PoolHolder.pool.getConnection();
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return PoolHolder.pool.getStats();
     }
 
     protected static <T> T executeQuery(String query, ResultSetProcessor<T> processor) {
@@ -22,6 +49,27 @@ public class SQLHelper {
         }
     }
 
+    // Commits when the work succeeds and rolls everything back when any part of it fails
+    protected static void executeInTransaction(TransactionalWork work) {
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                work.execute(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect the database!", e);
+        }
+    }
+
+    @FunctionalInterface
+    protected interface TransactionalWork {
+        void execute(Connection connection) throws SQLException;
+    }
+
     @FunctionalInterface
     protected interface ResultSetProcessor <T> {
         T process(ResultSet rs) throws SQLException;
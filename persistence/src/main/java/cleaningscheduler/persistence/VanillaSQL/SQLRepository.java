@@ -4,15 +4,19 @@ import cleaningscheduler.domain.*;
 import cleaningscheduler.persistence.ISchedulerRepository;
 import cleaningscheduler.persistence.exceptions.DeleteNotAllowedException;
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
 
 import static cleaningscheduler.persistence.VanillaSQL.SQLHelper.executeQuery;
 
@@ -64,9 +68,7 @@ public class SQLRepository implements ISchedulerRepository {
 
     @Override
     public void save(String personName, java.util.Map<Integer, Integer> availabilityAssignment) {
-        try (Connection connection = SQLHelper.getConnection()) {
-            connection.setAutoCommit(false);
-
+        SQLHelper.executeInTransaction(connection -> {
             int personId;
             try (PreparedStatement personStmt = connection.prepareStatement(
                     "INSERT INTO Persons (person_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
@@ -82,29 +84,8 @@ public class SQLRepository implements ISchedulerRepository {
                 }
             }
 
-            String query = "INSERT INTO AvailabilityAssignments(person_id, availability_minutes, week_id) VALUES" +
-                    "(?, ?, (SELECT id FROM Weeks WHERE week_number = ?)),"
-                            .repeat(availabilityAssignment.size() - 1)
-                    + "(?, ?, (SELECT id FROM Weeks WHERE week_number = ?));";
-
-            try (PreparedStatement availabilityStmt = connection.prepareStatement(query)) {
-                AtomicInteger index = new AtomicInteger(1);
-                availabilityAssignment.forEach((weekNumber, availability_minutes) -> {
-                    try {
-                        availabilityStmt.setInt(index.getAndIncrement(), personId);
-                        availabilityStmt.setInt(index.getAndIncrement(), availability_minutes);
-                        availabilityStmt.setInt(index.getAndIncrement(), weekNumber);
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-                availabilityStmt.executeUpdate();
-            }
-
-            connection.commit();
-        } catch (SQLException e) {
-            throw new IllegalStateException("Cannot connect the database!", e);
-        }
+            insertAvailability(connection, personId, availabilityAssignment);
+        });
     }
 
     @Override
@@ -136,9 +117,7 @@ public class SQLRepository implements ISchedulerRepository {
 
     @Override
     public void save(ISchedule schedule) {
-        try (Connection connection = SQLHelper.getConnection()) {
-            connection.setAutoCommit(false);
-
+        SQLHelper.executeInTransaction(connection -> {
             int scheduleID;
             try (PreparedStatement personStmt = connection.prepareStatement(
                     "INSERT INTO Schedules (created_at) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
@@ -154,43 +133,39 @@ public class SQLRepository implements ISchedulerRepository {
                 }
             }
 
-            String query = "INSERT INTO TaskAssignments(week_id, task_id, person_id, schedule_id) VALUES" +
-                    """
-                            ((SELECT id FROM Weeks WHERE week_number = ?),
-                            (SELECT id FROM Tasks WHERE task_name = ?),
-                            (SELECT id FROM Persons WHERE person_name = ?),  ?);
-                            """;
-
-            for (int i = 0; i < schedule.weekList().size(); i++) {
-                IWeek week = schedule.weekListAsJava().get(i);
-                week.getTaskAssignmentAsJava().forEach((task, person) -> {
-                    try (PreparedStatement availabilityStmt = connection.prepareStatement(query)) {
-                        try {
-                            availabilityStmt.setInt(1, week.weekNumber());
-                            availabilityStmt.setString(2, task.name());
-                            availabilityStmt.setString(3, person.name());
-                            availabilityStmt.setInt(4, scheduleID);
-                        } catch (SQLException e) {
-                            throw new RuntimeException(e);
-                        }
-                        availabilityStmt.executeUpdate();
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
+            Set<Integer> weekNumbers = new HashSet<>();
+            Set<String> taskNames = new HashSet<>();
+            Set<String> personNames = new HashSet<>();
+            for (IWeek week : schedule.weekListAsJava()) {
+                weekNumbers.add(week.weekNumber());
+                for (Map.Entry<ITask, IPerson> assignment : week.getTaskAssignmentAsJava().entrySet()) {
+                    taskNames.add(assignment.getKey().name());
+                    personNames.add(assignment.getValue().name());
+                }
+            }
+            Map<Integer, Integer> weekIds = loadWeekIds(connection, weekNumbers);
+            Map<String, Integer> taskIds = loadIdsByName(connection, "Tasks", "task_name", taskNames);
+            Map<String, Integer> personIds = loadIdsByName(connection, "Persons", "person_name", personNames);
+
+            String query = "INSERT INTO TaskAssignments(week_id, task_id, person_id, schedule_id) VALUES (?, ?, ?, ?);";
+            try (PreparedStatement assignmentStmt = connection.prepareStatement(query)) {
+                for (IWeek week : schedule.weekListAsJava()) {
+                    for (Map.Entry<ITask, IPerson> assignment : week.getTaskAssignmentAsJava().entrySet()) {
+                        assignmentStmt.setInt(1, idOf(weekIds, week.weekNumber(), "week"));
+                        assignmentStmt.setInt(2, idOf(taskIds, assignment.getKey().name(), "task"));
+                        assignmentStmt.setInt(3, idOf(personIds, assignment.getValue().name(), "person"));
+                        assignmentStmt.setInt(4, scheduleID);
+                        assignmentStmt.addBatch();
                     }
-                });
+                }
+                assignmentStmt.executeBatch();
             }
-
-            connection.commit();
-        } catch (SQLException e) {
-            throw new IllegalStateException("Cannot connect the database!", e);
-        }
+        });
     }
 
     @Override
     public void changePerson(String personName, String newPersonName, Map<Integer, Integer> availabilityAssignment) {
-        try (Connection connection = SQLHelper.getConnection()) {
-            connection.setAutoCommit(false);
-
+        SQLHelper.executeInTransaction(connection -> {
             try (PreparedStatement personStmt = connection.prepareStatement(
                     "UPDATE Persons SET person_name= ? WHERE person_name = ?;")) {
                 personStmt.setString(1, newPersonName);
@@ -198,40 +173,16 @@ public class SQLRepository implements ISchedulerRepository {
                 personStmt.executeUpdate();
             }
 
+            int personId = loadPersonId(connection, newPersonName);
+
             try (PreparedStatement deleteStmt = connection.prepareStatement(
-                    "DELETE FROM AvailabilityAssignments WHERE person_id = " +
-                            "(SELECT id FROM Persons WHERE person_name = ?);")) {
-                deleteStmt.setString(1, newPersonName);
+                    "DELETE FROM AvailabilityAssignments WHERE person_id = ?;")) {
+                deleteStmt.setInt(1, personId);
                 deleteStmt.executeUpdate();
             }
 
-            String query = "INSERT INTO AvailabilityAssignments(person_id, availability_minutes, week_id) VALUES" +
-                    ("((SELECT id FROM Persons WHERE person_name = ?), " +
-                            "?, " +
-                            "(SELECT id FROM Weeks WHERE week_number = ?)),")
-                            .repeat(availabilityAssignment.size() - 1)
-                    + "((SELECT id FROM Persons WHERE person_name = ?)," +
-                    "?, " +
-                    "(SELECT id FROM Weeks WHERE week_number = ?));";
-
-            try (PreparedStatement availabilityStmt = connection.prepareStatement(query)) {
-                AtomicInteger index = new AtomicInteger(1);
-                availabilityAssignment.forEach((weekNumber, availability_minutes) -> {
-                    try {
-                        availabilityStmt.setString(index.getAndIncrement(), newPersonName);
-                        availabilityStmt.setInt(index.getAndIncrement(), availability_minutes);
-                        availabilityStmt.setInt(index.getAndIncrement(), weekNumber);
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-                availabilityStmt.executeUpdate();
-            }
-
-            connection.commit();
-        } catch (SQLException e) {
-            throw new IllegalStateException("Cannot connect the database!", e);
-        }
+            insertAvailability(connection, personId, availabilityAssignment);
+        });
     }
 
     @Override
@@ -342,46 +293,25 @@ public class SQLRepository implements ISchedulerRepository {
 
     @Override
     public ISchedule getSchedule(DateTime createdAt) {
-        String query = """
-                    SELECT S.created_at AS createdAt,
-                    W.week_number AS weekNumber,
-                    T.task_name AS taskName,
-                    P.person_name AS personName
-                FROM TaskAssignments AS TA
-                JOIN Weeks AS W ON W.id = TA.week_id
-                JOIN Tasks AS T ON T.id = TA.task_id
-                JOIN Persons AS P ON P.id = TA.person_id
-                JOIN Schedules AS S ON S.id = TA.schedule_id
-                WHERE S.created_at = "%s"
-                ORDER BY W.week_number;""".formatted(createdAt.toString());
-
-
-        return executeQuery(query, result -> {
-            ScalaListBuilder<Week> listBuilder = new ScalaListBuilder<>();
-            if (result.next()) {
-                int currentWeek = result.getInt("weekNumber");
-                ScalaMapBuilder<Task, Person> taskAssignmentBuilder = new ScalaMapBuilder<>();
-                Task task;
-                Person person;
-                do {
-                    if (result.getInt("weekNumber") != currentWeek) {
-                        Week week = new Week(currentWeek, taskAssignmentBuilder.getMap());
-                        listBuilder.add(week);
-
-                        taskAssignmentBuilder = new ScalaMapBuilder<>();
-                        currentWeek = result.getInt("weekNumber");
-                    }
-                    task = (Task) getTask(result.getString("taskName"));
-                    person = (Person) getPerson(result.getString("personName"));
-                    taskAssignmentBuilder.update(task, person);
-                } while (result.next());
-
-                Week week = factory.createWeek(currentWeek, taskAssignmentBuilder.getMap());
-                listBuilder.add(week);
+        try (Connection connection = SQLHelper.getConnection()) {
+            Map<String, Person> people = loadPeople(connection);
+            Map<String, Task> tasks = loadTasks(connection, people);
+
+            Map<Integer, ScalaListBuilder<IWeek>> weeksBySchedule;
+            try (PreparedStatement assignmentStmt = connection.prepareStatement(
+                    assignmentQuery + " WHERE S.created_at = ? ORDER BY TA.schedule_id, W.week_number;")) {
+                assignmentStmt.setString(1, createdAt.toString());
+                try (ResultSet result = assignmentStmt.executeQuery()) {
+                    weeksBySchedule = readWeeks(result, tasks, people);
+                }
             }
-            scala.collection.immutable.List<IWeek> weekList = listBuilder.getList().map(week -> week);
-            return factory.createSchedule(createdAt, weekList);
-        });
+
+            ScalaListBuilder<IWeek> weekList = weeksBySchedule.values().stream().findFirst()
+                    .orElseGet(ScalaListBuilder::new);
+            return factory.createSchedule(createdAt, weekList.getList());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect the database!", e);
+        }
     }
 
 
@@ -425,35 +355,237 @@ public class SQLRepository implements ISchedulerRepository {
 
     @Override
     public List<ITask> getAllTasks() {
-        String query = "SELECT * FROM Tasks;";
-
-        return executeQuery(query, result -> {
-            List<ITask> taskList = new ArrayList<>();
-            while (result.next()) {
-                String taskName = result.getString("task_name");
-                taskList.add(getTask(taskName));
-            }
-            return taskList;
-        });
+        try (Connection connection = SQLHelper.getConnection()) {
+            return new ArrayList<>(loadTasks(connection, loadPeople(connection)).values());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect the database!", e);
+        }
     }
 
 
     @Override
     public List<ISchedule> getAllSchedules() {
-        String query = "SELECT * FROM Schedules ORDER BY created_at DESC;";
+        try (Connection connection = SQLHelper.getConnection()) {
+            Map<String, Person> people = loadPeople(connection);
+            Map<String, Task> tasks = loadTasks(connection, people);
+
+            Map<Integer, ScalaListBuilder<IWeek>> weeksBySchedule;
+            try (PreparedStatement assignmentStmt = connection.prepareStatement(
+                    assignmentQuery + " ORDER BY TA.schedule_id, W.week_number;");
+                 ResultSet result = assignmentStmt.executeQuery()) {
+                weeksBySchedule = readWeeks(result, tasks, people);
+            }
 
-        return executeQuery(query, result -> {
             List<ISchedule> scheduleList = new ArrayList<>();
-            while (result.next()) {
-                String createdAtString = result.getString("created_at");
+            try (PreparedStatement scheduleStmt = connection.prepareStatement(
+                    "SELECT id, created_at FROM Schedules ORDER BY created_at DESC;");
+                 ResultSet result = scheduleStmt.executeQuery()) {
                 DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss");
+                while (result.next()) {
+                    DateTime createdAt = formatter.withZoneUTC().parseDateTime(result.getString("created_at"));
+                    ScalaListBuilder<IWeek> weekList =
+                            weeksBySchedule.getOrDefault(result.getInt("id"), new ScalaListBuilder<>());
+                    scheduleList.add(factory.createSchedule(createdAt, weekList.getList()));
+                }
+            }
+            return scheduleList;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect the database!", e);
+        }
+    }
 
-                DateTime createdAt = formatter.withZoneUTC().parseDateTime(createdAtString);
-                createdAt.withZoneRetainFields(DateTimeZone.UTC);
+    // The bulk loaders below read every person, task and assignment with one query each, so
+    // the number of queries of a read doesn't grow with the data. Tasks and schedules share
+    // the Person and Task instances of a single read.
+    private static final String assignmentQuery = """
+            SELECT TA.schedule_id AS scheduleId,
+                W.week_number AS weekNumber,
+                T.task_name AS taskName,
+                P.person_name AS personName
+            FROM TaskAssignments AS TA
+            JOIN Weeks AS W ON W.id = TA.week_id
+            JOIN Tasks AS T ON T.id = TA.task_id
+            JOIN Persons AS P ON P.id = TA.person_id
+            JOIN Schedules AS S ON S.id = TA.schedule_id""";
+
+    private Map<String, Person> loadPeople(Connection connection) throws SQLException {
+        String query = """
+                SELECT P.person_name AS name,
+                    W.week_number AS weekNumber,
+                    AA.availability_minutes AS availability
+                FROM Persons AS P
+                LEFT JOIN AvailabilityAssignments AS AA ON P.id = AA.person_id
+                LEFT JOIN Weeks AS W ON W.id = AA.week_id
+                ORDER BY P.id;""";
 
-                scheduleList.add(getSchedule(createdAt));
+        Map<String, ScalaMapBuilder<Object, Object>> availabilityByName = new LinkedHashMap<>();
+        try (PreparedStatement personStmt = connection.prepareStatement(query);
+             ResultSet result = personStmt.executeQuery()) {
+            while (result.next()) {
+                ScalaMapBuilder<Object, Object> availabilityAssignment =
+                        availabilityByName.computeIfAbsent(result.getString("name"), name -> new ScalaMapBuilder<>());
+                int weekNumber = result.getInt("weekNumber");
+                if (!result.wasNull()) {
+                    availabilityAssignment.update(weekNumber, result.getInt("availability"));
+                }
             }
-            return scheduleList;
-        });
+        }
+
+        Map<String, Person> people = new LinkedHashMap<>();
+        availabilityByName.forEach((name, availabilityAssignment) ->
+                people.put(name, factory.createPerson(name, availabilityAssignment.getMap())));
+        return people;
+    }
+
+    private Map<String, Task> loadTasks(Connection connection, Map<String, Person> people) throws SQLException {
+        String query = """
+                SELECT T.task_name AS name,
+                    T.costs AS costs,
+                    P.person_name AS preferredAssignee,
+                    T.is_preferred_fixed AS isPreferredFixed,
+                    W.week_number AS weekNumber,
+                    T.is_repeated AS isRepeated,
+                    T.min_repeat_interval AS minRepeatInterval,
+                    T.max_repeat_interval AS maxRepeatInterval
+                FROM Tasks AS T
+                JOIN Persons AS P ON T.preferred_person_id = P.id
+                JOIN Weeks AS W ON W.id = T.last_done_at
+                ORDER BY T.id;""";
+
+        Map<String, Task> tasks = new LinkedHashMap<>();
+        try (PreparedStatement taskStmt = connection.prepareStatement(query);
+             ResultSet result = taskStmt.executeQuery()) {
+            while (result.next()) {
+                String name = result.getString("name");
+                tasks.put(name, factory.createTask(name,
+                        result.getInt("costs"),
+                        people.get(result.getString("preferredAssignee")),
+                        result.getBoolean("isPreferredFixed"),
+                        result.getInt("weekNumber"),
+                        result.getBoolean("isRepeated"),
+                        result.getInt("minRepeatInterval"),
+                        result.getInt("maxRepeatInterval")));
+            }
+        }
+        return tasks;
+    }
+
+    // Expects the rows of assignmentQuery ordered by schedule and week
+    private Map<Integer, ScalaListBuilder<IWeek>> readWeeks(ResultSet result, Map<String, Task> tasks,
+                                                            Map<String, Person> people) throws SQLException {
+        Map<Integer, ScalaListBuilder<IWeek>> weeksBySchedule = new LinkedHashMap<>();
+        if (!result.next()) {
+            return weeksBySchedule;
+        }
+
+        int currentSchedule = result.getInt("scheduleId");
+        int currentWeek = result.getInt("weekNumber");
+        ScalaMapBuilder<Task, Person> taskAssignmentBuilder = new ScalaMapBuilder<>();
+        do {
+            int scheduleId = result.getInt("scheduleId");
+            int weekNumber = result.getInt("weekNumber");
+            if (scheduleId != currentSchedule || weekNumber != currentWeek) {
+                weeksBySchedule.computeIfAbsent(currentSchedule, id -> new ScalaListBuilder<>())
+                        .add(factory.createWeek(currentWeek, taskAssignmentBuilder.getMap()));
+
+                taskAssignmentBuilder = new ScalaMapBuilder<>();
+                currentSchedule = scheduleId;
+                currentWeek = weekNumber;
+            }
+            taskAssignmentBuilder.update(tasks.get(result.getString("taskName")),
+                    people.get(result.getString("personName")));
+        } while (result.next());
+
+        weeksBySchedule.computeIfAbsent(currentSchedule, id -> new ScalaListBuilder<>())
+                .add(factory.createWeek(currentWeek, taskAssignmentBuilder.getMap()));
+        return weeksBySchedule;
+    }
+
+    // The write helpers below resolve the ids of the weeks, tasks and persons a write uses
+    // in one query each and send the rows as a JDBC batch, instead of a statement with
+    // subselects per row
+    private void insertAvailability(Connection connection, int personId, Map<Integer, Integer> availabilityAssignment)
+            throws SQLException {
+        Map<Integer, Integer> weekIds = loadWeekIds(connection, availabilityAssignment.keySet());
+        String query = "INSERT INTO AvailabilityAssignments(person_id, availability_minutes, week_id) VALUES (?, ?, ?);";
+        try (PreparedStatement availabilityStmt = connection.prepareStatement(query)) {
+            for (Map.Entry<Integer, Integer> availability : availabilityAssignment.entrySet()) {
+                availabilityStmt.setInt(1, personId);
+                availabilityStmt.setInt(2, availability.getValue());
+                availabilityStmt.setInt(3, idOf(weekIds, availability.getKey(), "week"));
+                availabilityStmt.addBatch();
+            }
+            availabilityStmt.executeBatch();
+        }
+    }
+
+    private int loadPersonId(Connection connection, String personName) throws SQLException {
+        try (PreparedStatement personStmt = connection.prepareStatement(
+                "SELECT id FROM Persons WHERE person_name = ?;")) {
+            personStmt.setString(1, personName);
+            try (ResultSet result = personStmt.executeQuery()) {
+                if (!result.next()) {
+                    throw new SQLException("No person " + personName + " in the database.");
+                }
+                return result.getInt(1);
+            }
+        }
+    }
+
+    private Map<Integer, Integer> loadWeekIds(Connection connection, Collection<Integer> weekNumbers)
+            throws SQLException {
+        if (weekNumbers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, Integer> weekIds = new HashMap<>();
+        String query = "SELECT id, week_number FROM Weeks WHERE week_number IN ("
+                + placeholders(weekNumbers.size()) + ");";
+        try (PreparedStatement weekStmt = connection.prepareStatement(query)) {
+            int index = 1;
+            for (int weekNumber : weekNumbers) {
+                weekStmt.setInt(index++, weekNumber);
+            }
+            try (ResultSet result = weekStmt.executeQuery()) {
+                while (result.next()) {
+                    weekIds.put(result.getInt("week_number"), result.getInt("id"));
+                }
+            }
+        }
+        return weekIds;
+    }
+
+    // The table and column are always constants of this class, only the names are bound
+    private Map<String, Integer> loadIdsByName(Connection connection, String table, String nameColumn,
+                                               Collection<String> names) throws SQLException {
+        if (names.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> ids = new HashMap<>();
+        String query = "SELECT id, " + nameColumn + " FROM " + table + " WHERE " + nameColumn + " IN ("
+                + placeholders(names.size()) + ");";
+        try (PreparedStatement idStmt = connection.prepareStatement(query)) {
+            int index = 1;
+            for (String name : names) {
+                idStmt.setString(index++, name);
+            }
+            try (ResultSet result = idStmt.executeQuery()) {
+                while (result.next()) {
+                    ids.put(result.getString(2), result.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static <K> int idOf(Map<K, Integer> ids, K key, String kind) throws SQLException {
+        Integer id = ids.get(key);
+        if (id == null) {
+            throw new SQLException("No " + kind + " " + key + " in the database.");
+        }
+        return id;
     }
 }
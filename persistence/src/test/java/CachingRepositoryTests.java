@@ -0,0 +1,179 @@
+import cleaningscheduler.domain.*;
+import cleaningscheduler.persistence.CachingRepository;
+import cleaningscheduler.persistence.ISchedulerRepository;
+import cleaningscheduler.persistence.VanillaSQL.ScalaListBuilder;
+import cleaningscheduler.persistence.VanillaSQL.ScalaMapBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingRepositoryTests {
+    private final SchedulerFactory factory = new SchedulerFactory();
+    private final IPerson person = factory.createPerson("PersonA", new ScalaMapBuilder<Object, Object>().getMap());
+    private final ITask task = factory.createTask("task1", 30, person, false, 1, true, 2, 3);
+
+    // Only counts the reads, every write is accepted
+    private class CountingRepository implements ISchedulerRepository {
+        final Map<String, Integer> reads = new HashMap<>();
+
+        private void count(String method) {
+            reads.merge(method, 1, Integer::sum);
+        }
+
+        @Override public void deletePerson(String name) {}
+        @Override public void deleteTask(String name) {}
+        @Override public void deleteSchedule(DateTime createdAt) {}
+        @Override public void save(String personName, Map<Integer, Integer> availabilityAssignment) {}
+        @Override public void save(String taskName, int costs, String personName, boolean isPreferredFixed,
+                                   int lastDoneAt, boolean isRepeated, int minRepeatInterval,
+                                   int maxRepeatInterval) {}
+        @Override public void save(ISchedule schedule) {}
+        @Override public void changePerson(String personName, String newPersonName,
+                                           Map<Integer, Integer> availabilityAssignment) {}
+        @Override public void changeTask(String taskName, String newTaskName, int costs, String personName,
+                                         boolean isPreferredFixed, int lastDoneAt, boolean isRepeated,
+                                         int minRepeatInterval, int maxRepeatInterval) {}
+
+        @Override
+        public IPerson getPerson(String name) {
+            count("getPerson");
+            return null;
+        }
+
+        @Override
+        public ITask getTask(String name) {
+            count("getTask");
+            return null;
+        }
+
+        @Override
+        public ISchedule getSchedule(DateTime createdAt) {
+            count("getSchedule");
+            return factory.createSchedule(createdAt, new ScalaListBuilder<IWeek>().getList());
+        }
+
+        @Override
+        public List<IPerson> getAllPeople() {
+            count("getAllPeople");
+            return List.of(person);
+        }
+
+        @Override
+        public List<ITask> getAllTasks() {
+            count("getAllTasks");
+            return List.of(task);
+        }
+
+        @Override
+        public List<ISchedule> getAllSchedules() {
+            count("getAllSchedules");
+            return List.of();
+        }
+    }
+
+    private int reads(CountingRepository repository, String method) {
+        return repository.reads.getOrDefault(method, 0);
+    }
+
+    @Test
+    public void repeatedReadsShouldBeServedFromTheCache() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository);
+
+        cache.getAllPeople();
+        cache.getAllPeople();
+        assertSame(person, cache.getPerson("PersonA"));
+
+        assertEquals(1, reads(repository, "getAllPeople"));
+        assertEquals(0, reads(repository, "getPerson"));
+        assertEquals(2, cache.getStats().hits());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    public void savingAPersonShouldOnlyDropThePeople() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository);
+        cache.getAllPeople();
+        cache.getAllTasks();
+
+        cache.save("PersonB", Map.of());
+        cache.getAllPeople();
+        cache.getAllTasks();
+
+        assertEquals(2, reads(repository, "getAllPeople"));
+        assertEquals(1, reads(repository, "getAllTasks"));
+    }
+
+    @Test
+    public void changingATaskShouldDropTasksAndSchedules() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository);
+        DateTime createdAt = new DateTime(2024, 1, 1, 12, 0);
+        cache.getAllPeople();
+        cache.getAllTasks();
+        cache.getSchedule(createdAt);
+
+        cache.changeTask("task1", "task1", 20, "PersonA", false, 1, true, 2, 3);
+        cache.getAllPeople();
+        cache.getAllTasks();
+        cache.getSchedule(createdAt);
+
+        assertEquals(1, reads(repository, "getAllPeople"));
+        assertEquals(2, reads(repository, "getAllTasks"));
+        assertEquals(2, reads(repository, "getSchedule"));
+    }
+
+    @Test
+    public void scheduleShouldBeFoundByItsInstant() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository);
+        DateTime createdAt = new DateTime(2024, 1, 1, 12, 0);
+
+        cache.getSchedule(createdAt);
+        cache.getSchedule(createdAt.toDateTime(org.joda.time.DateTimeZone.UTC));
+
+        assertEquals(1, reads(repository, "getSchedule"));
+    }
+
+    @Test
+    public void deletedScheduleShouldBeDroppedWhateverTheZone() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository);
+        DateTime createdAt = new DateTime(2024, 1, 1, 12, 0, DateTimeZone.forID("Europe/Amsterdam"));
+        DateTime parsedAsUtc = new DateTime(2024, 1, 1, 12, 0, DateTimeZone.UTC);
+        cache.getSchedule(createdAt);
+
+        cache.deleteSchedule(parsedAsUtc);
+        cache.getSchedule(createdAt);
+
+        assertNotEquals(createdAt.getMillis(), parsedAsUtc.getMillis());
+        assertEquals(2, reads(repository, "getSchedule"));
+    }
+
+    @Test
+    public void leastRecentlyUsedScheduleShouldBeEvicted() {
+        CountingRepository repository = new CountingRepository();
+        CachingRepository cache = new CachingRepository(repository, 2);
+        DateTime first = new DateTime(2024, 1, 1, 12, 0);
+        DateTime second = first.plusDays(1);
+        DateTime third = first.plusDays(2);
+
+        cache.getSchedule(first);
+        cache.getSchedule(second);
+        cache.getSchedule(first);
+        cache.getSchedule(third);
+        cache.getSchedule(first);
+        cache.getSchedule(second);
+
+        assertEquals(4, reads(repository, "getSchedule"));
+        assertEquals(2, cache.getStats().scheduleEvictions());
+        assertEquals(2, cache.getStats().cachedSchedules());
+    }
+}
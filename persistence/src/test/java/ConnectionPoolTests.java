@@ -0,0 +1,200 @@
+import cleaningscheduler.persistence.VanillaSQL.ConnectionPool;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private final AtomicInteger preparedStatements = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    private final AtomicInteger clearedWarnings = new AtomicInteger();
+
+    // A connection that only keeps its settings and counts what the pool does with it
+    private Connection fakeConnection() {
+        openedConnections.incrementAndGet();
+        boolean[] state = {true, false, false}; // autoCommit, closed, readOnly
+        int[] transactionIsolation = {Connection.TRANSACTION_REPEATABLE_READ};
+        String[] catalog = {"cleaning_scheduler"};
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getAutoCommit" -> state[0];
+                    case "setAutoCommit" -> {
+                        state[0] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "isReadOnly" -> state[2];
+                    case "setReadOnly" -> {
+                        state[2] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "getTransactionIsolation" -> transactionIsolation[0];
+                    case "setTransactionIsolation" -> {
+                        transactionIsolation[0] = (Integer) args[0];
+                        yield null;
+                    }
+                    case "getCatalog" -> catalog[0];
+                    case "setCatalog" -> {
+                        catalog[0] = (String) args[0];
+                        yield null;
+                    }
+                    case "clearWarnings" -> {
+                        clearedWarnings.incrementAndGet();
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        rollbacks.incrementAndGet();
+                        yield null;
+                    }
+                    case "close" -> {
+                        state[1] = true;
+                        yield null;
+                    }
+                    case "isClosed" -> state[1];
+                    case "isValid" -> !state[1];
+                    case "prepareStatement" -> {
+                        preparedStatements.incrementAndGet();
+                        yield fakeStatement();
+                    }
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private PreparedStatement fakeStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    private ConnectionPool pool(int maxSize, long leakThresholdMillis) {
+        return new ConnectionPool(this::fakeConnection,
+                new ConnectionPool.PoolSettings(0, maxSize, 50, 30_000, 600_000, leakThresholdMillis, 10, 5));
+    }
+
+    @Test
+    public void connectionShouldBeReusedAfterClose() throws SQLException {
+        try (ConnectionPool pool = pool(2, 0)) {
+            pool.getConnection().close();
+            pool.getConnection().close();
+
+            assertEquals(1, openedConnections.get());
+            assertEquals(2, pool.getStats().borrowCount());
+            assertEquals(1, pool.getStats().idleConnections());
+        }
+    }
+
+    @Test
+    public void borrowShouldTimeOutWhenPoolIsExhausted() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0)) {
+            Connection connection = pool.getConnection();
+
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+            assertEquals(1, pool.getStats().activeConnections());
+            connection.close();
+        }
+    }
+
+    @Test
+    public void closedHandleShouldNotReachConnection() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0)) {
+            Connection connection = pool.getConnection();
+            connection.close();
+
+            assertTrue(connection.isClosed());
+            assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+        }
+    }
+
+    @Test
+    public void statementShouldBeCachedPerConnection() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0)) {
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.getConnection();
+                     PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+                    assertFalse(statement.isClosed());
+                }
+            }
+
+            assertEquals(1, preparedStatements.get());
+            assertEquals(2, pool.getStats().statementCacheHits());
+            assertEquals(1, pool.getStats().statementCacheMisses());
+        }
+    }
+
+    @Test
+    public void statementInUseShouldNotBeShared() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0);
+             Connection connection = pool.getConnection();
+             PreparedStatement first = connection.prepareStatement("SELECT 1");
+             PreparedStatement second = connection.prepareStatement("SELECT 1")) {
+
+            assertNotSame(first, second);
+            assertEquals(2, preparedStatements.get());
+        }
+    }
+
+    @Test
+    public void openTransactionShouldBeRolledBack() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0)) {
+            Connection connection = pool.getConnection();
+            connection.setAutoCommit(false);
+            connection.close();
+
+            assertEquals(1, rollbacks.get());
+            assertTrue(pool.getConnection().getAutoCommit());
+        }
+    }
+
+    @Test
+    public void settingsShouldBeRestoredWhenGivenBack() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0)) {
+            Connection connection = pool.getConnection();
+            connection.setReadOnly(true);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            connection.setCatalog("other");
+            connection.close();
+
+            try (Connection reused = pool.getConnection()) {
+                assertEquals(1, openedConnections.get());
+                assertFalse(reused.isReadOnly());
+                assertEquals(Connection.TRANSACTION_REPEATABLE_READ, reused.getTransactionIsolation());
+                assertEquals("cleaning_scheduler", reused.getCatalog());
+                assertEquals(1, clearedWarnings.get());
+            }
+        }
+    }
+
+    @Test
+    public void cachedStatementShouldGiveBorrowedConnection() throws SQLException {
+        try (ConnectionPool pool = pool(1, 0);
+             Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+
+            assertSame(connection, statement.getConnection());
+        }
+    }
+
+    @Test
+    public void connectionThatIsNotGivenBackShouldBeReported() throws SQLException, InterruptedException {
+        try (ConnectionPool pool = pool(1, 10)) {
+            Connection connection = pool.getConnection();
+            Thread.sleep(200);
+
+            assertEquals(1, pool.getStats().leakCount());
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import cleaningscheduler.domain.*;
+import cleaningscheduler.persistence.InMemoryRepository;
+import cleaningscheduler.persistence.VanillaSQL.ScalaListBuilder;
+import cleaningscheduler.persistence.VanillaSQL.ScalaMapBuilder;
+import cleaningscheduler.persistence.exceptions.DeleteNotAllowedException;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryRepositoryTests {
+    private final SchedulerFactory factory = new SchedulerFactory();
+    private final DateTime createdAt = new DateTime(2024, 11, 15, 12, 0);
+
+    private void fill(InMemoryRepository repository) {
+        repository.save("Person A", Map.of(30, 40, 31, 20));
+        repository.save("Person B", Map.of(30, 10));
+        repository.save("Task 1", 40, "Person A", true, 20, true, 1, 5);
+
+        ITask task = repository.getTask("Task 1");
+        IPerson person = repository.getPerson("Person B");
+        ScalaMapBuilder<ITask, IPerson> taskAssignment = new ScalaMapBuilder<>();
+        taskAssignment.update(task, person);
+        ScalaListBuilder<IWeek> weekList = new ScalaListBuilder<>();
+        weekList.add(factory.createWeek(30, taskAssignment.getMap()));
+        repository.save(factory.createSchedule(createdAt, weekList.getList()));
+    }
+
+    @Test
+    public void savedDataShouldBeRead() {
+        InMemoryRepository repository = new InMemoryRepository();
+        fill(repository);
+
+        assertEquals(2, repository.getAllPeople().size());
+        assertEquals(40, repository.getTask("Task 1").costs());
+        assertEquals("Person A", repository.getTask("Task 1").preferredAssignee().name());
+        ISchedule schedule = repository.getSchedule(createdAt);
+        assertEquals("Person B", schedule.weekListAsJava().get(0).getTaskAssignmentAsJava().values()
+                .iterator().next().name());
+    }
+
+    @Test
+    public void personWithDependentTaskOrScheduleShouldNotBeDeleted() {
+        InMemoryRepository repository = new InMemoryRepository();
+        fill(repository);
+
+        assertThrows(DeleteNotAllowedException.class, () -> repository.deletePerson("Person A"));
+        assertThrows(DeleteNotAllowedException.class, () -> repository.deletePerson("Person B"));
+        assertThrows(DeleteNotAllowedException.class, () -> repository.deleteTask("Task 1"));
+
+        repository.deleteSchedule(createdAt);
+        repository.deleteTask("Task 1");
+        repository.deletePerson("Person A");
+        assertNull(repository.getPerson("Person A"));
+    }
+
+    @Test
+    public void changedPersonShouldShowInTasksAndSchedules() {
+        InMemoryRepository repository = new InMemoryRepository();
+        fill(repository);
+
+        repository.changePerson("Person A", "Person C", Map.of(30, 5));
+        repository.changePerson("Person B", "Person D", Map.of(30, 5));
+
+        assertEquals("Person C", repository.getTask("Task 1").preferredAssignee().name());
+        IWeek week = repository.getSchedule(createdAt).weekListAsJava().get(0);
+        assertEquals("Person D", week.getTaskAssignmentAsJava().values().iterator().next().name());
+        assertEquals("Person C", week.getTaskAssignmentAsJava().keySet().iterator().next()
+                .preferredAssignee().name());
+    }
+
+    @Test
+    public void snapshotShouldNotChangeWithLaterWrites() {
+        InMemoryRepository repository = new InMemoryRepository();
+        fill(repository);
+        InMemoryRepository.Snapshot snapshot = repository.snapshot();
+
+        repository.save("Person E", Map.of(30, 40));
+        repository.changeTask("Task 1", "Task 2", 10, "Person A", false, 20, true, 1, 5);
+
+        assertEquals(2, snapshot.people().size());
+        assertTrue(snapshot.tasks().containsKey("Task 1"));
+        assertTrue(repository.snapshot().version() > snapshot.version());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.people().remove("Person A"));
+    }
+
+    @Test
+    public void journalShouldBeReplayed(@TempDir Path directory) {
+        Path journal = directory.resolve("journal");
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            fill(repository);
+            repository.changeTask("Task 1", "Task 1", 30, "Person A", true, 20, true, 1, 5);
+        }
+
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            assertEquals(2, repository.getAllPeople().size());
+            assertEquals(30, repository.getTask("Task 1").costs());
+            assertEquals(createdAt.getMillis(), repository.getAllSchedules().get(0).createdAt().getMillis());
+        }
+    }
+
+    @Test
+    public void compactedJournalShouldKeepTheData(@TempDir Path directory) throws IOException {
+        Path journal = directory.resolve("journal");
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            fill(repository);
+            repository.changePerson("Person B", "Person D", Map.of(30, 5));
+            repository.compactJournal();
+        }
+
+        assertEquals(4, Files.readAllLines(journal).size());
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            assertNotNull(repository.getPerson("Person D"));
+            assertNotNull(repository.getSchedule(createdAt));
+        }
+    }
+
+    @Test
+    public void incompleteLastLineShouldBeRemoved(@TempDir Path directory) throws IOException {
+        Path journal = directory.resolve("journal");
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            repository.save("Person A", Map.of(30, 40));
+        }
+        Files.writeString(journal, "task Task+1 40 Person", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            assertNull(repository.getTask("Task 1"));
+            repository.save("Person B", Map.of(30, 10));
+        }
+        try (InMemoryRepository repository = new InMemoryRepository(journal)) {
+            assertEquals(2, repository.getAllPeople().size());
+        }
+    }
+}
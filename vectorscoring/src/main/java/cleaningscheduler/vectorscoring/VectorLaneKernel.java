@@ -0,0 +1,56 @@
+package cleaningscheduler.vectorscoring;
+
+import cleaningscheduler.domain.search.LaneKernel;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// The lane loops of BatchScorer on the widest int vectors of the CPU, only the lanes
+// after the last full vector are masked. Found by LaneKernel.vectorized through
+// META-INF/services when the JVM runs with --add-modules jdk.incubator.vector.
+public class VectorLaneKernel implements LaneKernel {
+    private static final VectorSpecies<Integer> species = IntVector.SPECIES_PREFERRED;
+    // The largest difference whose square still fits in an int, a larger one, also one
+    // that wrapped around, gives the Int.MinValue penalty of Week.personScore
+    private static final int maxSquaredDifference = 46340;
+
+    @Override
+    public void addLoads(int[] column, int person, int costs, int[] loads, int laneCount) {
+        int lane = 0;
+        for (; lane < species.loopBound(laneCount); lane += species.length()) {
+            VectorMask<Integer> isPerson = IntVector.fromArray(species, column, lane).eq(person);
+            IntVector.fromArray(species, loads, lane).add(costs, isPerson).intoArray(loads, lane);
+        }
+        if (lane < laneCount) {
+            VectorMask<Integer> inBatch = species.indexInRange(lane, laneCount);
+            VectorMask<Integer> isPerson = IntVector.fromArray(species, column, lane, inBatch).eq(person).and(inBatch);
+            IntVector.fromArray(species, loads, lane, inBatch).add(costs, isPerson).intoArray(loads, lane, inBatch);
+        }
+    }
+
+    @Override
+    public void addPersonScores(int[] loads, int availability, int weight, int[] scores, int laneCount) {
+        int lane = 0;
+        for (; lane < species.loopBound(laneCount); lane += species.length()) {
+            IntVector personScores = personScores(IntVector.fromArray(species, loads, lane), availability);
+            IntVector.fromArray(species, scores, lane).add(personScores.mul(weight)).intoArray(scores, lane);
+        }
+        if (lane < laneCount) {
+            VectorMask<Integer> inBatch = species.indexInRange(lane, laneCount);
+            IntVector personScores = personScores(IntVector.fromArray(species, loads, lane, inBatch), availability);
+            IntVector.fromArray(species, scores, lane, inBatch).add(personScores.mul(weight))
+                    .intoArray(scores, lane, inBatch);
+        }
+    }
+
+    // Week.personScore for every lane: what is left of the availability, or minus the
+    // square of what is missing
+    private static IntVector personScores(IntVector loads, int availability) {
+        IntVector difference = IntVector.broadcast(species, availability).sub(loads);
+        VectorMask<Integer> isTooLarge = difference.compare(VectorOperators.LT, -maxSquaredDifference)
+                .or(difference.compare(VectorOperators.GT, maxSquaredDifference));
+        IntVector penalty = difference.mul(difference).neg().blend(Integer.MIN_VALUE, isTooLarge);
+        return difference.blend(penalty, loads.compare(VectorOperators.GT, availability));
+    }
+}
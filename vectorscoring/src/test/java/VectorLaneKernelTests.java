@@ -0,0 +1,71 @@
+import cleaningscheduler.domain.search.LaneKernel;
+import cleaningscheduler.domain.search.LaneKernel$;
+import cleaningscheduler.domain.search.ScalarLaneKernel$;
+import cleaningscheduler.vectorscoring.VectorLaneKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorLaneKernelTests {
+    private final LaneKernel scalarKernel = ScalarLaneKernel$.MODULE$;
+    private final LaneKernel vectorKernel = new VectorLaneKernel();
+    private final int[] edgeValues = {0, 1, -1, 46340, 46341, -46340, -46341, 100000, Integer.MAX_VALUE,
+            Integer.MIN_VALUE};
+
+    private int randomValue(Random random, int bound) {
+        return random.nextBoolean() ? edgeValues[random.nextInt(edgeValues.length)] : random.nextInt(bound);
+    }
+
+    @Test
+    public void vectorKernelShouldBeFoundWithTheIncubatorModule() {
+        assertInstanceOf(VectorLaneKernel.class, LaneKernel$.MODULE$.vectorized().get());
+    }
+
+    @Test
+    public void everyLaneShouldMatchTheScalarKernel() {
+        Random random = new Random(1);
+        for (int batch = 0; batch < 10_000; batch++) {
+            int laneCount = 1 + random.nextInt(70);
+            int[] column = new int[laneCount];
+            int[] loads = new int[laneCount + 3];
+            int[] scores = new int[laneCount + 3];
+            for (int lane = 0; lane < laneCount; lane++) {
+                column[lane] = random.nextInt(4) - 1;
+                loads[lane] = randomValue(random, 200_000);
+                scores[lane] = random.nextInt();
+            }
+            int[] expectedLoads = loads.clone();
+            int[] expectedScores = scores.clone();
+            int person = random.nextInt(3);
+            int costs = randomValue(random, 100);
+            int availability = randomValue(random, 100_000);
+            int weight = random.nextInt(4);
+
+            scalarKernel.addLoads(column, person, costs, expectedLoads, laneCount);
+            scalarKernel.addPersonScores(expectedLoads, availability, weight, expectedScores, laneCount);
+            vectorKernel.addLoads(column, person, costs, loads, laneCount);
+            vectorKernel.addPersonScores(loads, availability, weight, scores, laneCount);
+
+            assertArrayEquals(expectedLoads, loads, "loads of batch " + batch);
+            assertArrayEquals(expectedScores, scores, "scores of batch " + batch);
+        }
+    }
+
+    @Test
+    public void lanesAfterTheBatchShouldNotChange() {
+        int[] column = new int[20];
+        int[] loads = new int[20];
+        int[] scores = new int[20];
+
+        vectorKernel.addLoads(column, 0, 10, loads, 5);
+        vectorKernel.addPersonScores(loads, 30, 1, scores, 5);
+
+        assertEquals(10, loads[4]);
+        assertEquals(20, scores[4]);
+        assertTrue(Arrays.stream(loads, 5, 20).allMatch(load -> load == 0));
+        assertTrue(Arrays.stream(scores, 5, 20).allMatch(score -> score == 0));
+    }
+}